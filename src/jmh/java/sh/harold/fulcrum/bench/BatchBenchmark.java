@@ -0,0 +1,52 @@
+package sh.harold.fulcrum.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.bukkit.World;
+import sh.harold.fulcrum.physics.BatchStepper;
+import sh.harold.fulcrum.physics.PendulumChain;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int chains;
+
+    @Param({"2", "6", "12"})
+    public int segments;
+
+    private final List<PendulumChain> ensemble = new ArrayList<>();
+    private BatchStepper batchStepper;
+
+    @Setup
+    public void setup() {
+        final World world = new StubWorld().world();
+        for (int i = 0; i < this.chains; i++) {
+            this.ensemble.add(BenchChains.create(world, this.segments, 100L + i));
+        }
+        this.batchStepper = BatchStepper.create();
+    }
+
+    @Benchmark
+    public void scalar() {
+        for (final PendulumChain chain : this.ensemble) {
+            chain.stepTick(BenchChains.TICK_SECONDS);
+        }
+    }
+
+    @Benchmark
+    public void vectorLanes() {
+        this.batchStepper.step(this.ensemble, BenchChains.TICK_SECONDS);
+    }
+}
@@ -0,0 +1,25 @@
+package sh.harold.fulcrum.bench;
+
+import java.util.SplittableRandom;
+import org.bukkit.Location;
+import org.bukkit.World;
+import sh.harold.fulcrum.physics.PendulumChain;
+import sh.harold.fulcrum.physics.PoseType;
+
+final class BenchChains {
+
+    static final double TICK_SECONDS = 0.05;
+
+    private BenchChains() {
+    }
+
+    static PendulumChain create(World world, int segments, long seed) {
+        final PendulumChain chain = new PendulumChain(1, new Location(world, 0.5, 100.5, 0.5), null);
+        chain.configureSegments(segments);
+        chain.resetPose(PoseType.RANDOMIZED, new SplittableRandom(seed));
+        // drag would settle the chain within a long iteration and leave the rest timing a no-op
+        chain.sleepEnabled(false);
+        chain.active(true);
+        return chain;
+    }
+}
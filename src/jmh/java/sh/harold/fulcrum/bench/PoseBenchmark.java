@@ -0,0 +1,42 @@
+package sh.harold.fulcrum.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import sh.harold.fulcrum.physics.PendulumChain;
+import sh.harold.fulcrum.physics.PoseType;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoseBenchmark {
+
+    @Param({"1", "2", "4", "8", "12", "24", "48"})
+    public int segments;
+
+    private PendulumChain chain;
+    private SplittableRandom rng;
+
+    @Setup
+    public void setup() {
+        this.chain = BenchChains.create(new StubWorld().world(), this.segments, 7L);
+        this.rng = new SplittableRandom(7L);
+    }
+
+    @Benchmark
+    public void resetDown() {
+        this.chain.resetPose(PoseType.DOWN, this.rng);
+    }
+
+    @Benchmark
+    public void resetRandomized() {
+        this.chain.resetPose(PoseType.RANDOMIZED, this.rng);
+    }
+}
@@ -0,0 +1,64 @@
+package sh.harold.fulcrum.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.bukkit.World;
+import sh.harold.fulcrum.physics.ParticleStyle;
+import sh.harold.fulcrum.physics.PendulumChain;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RenderBenchmark {
+
+    @Param({"1", "4", "12", "24"})
+    public int segments;
+
+    @Param({"WEIGHTED", "SPARK", "BUBBLE"})
+    public ParticleStyle style;
+
+    @Param({"false", "true"})
+    public boolean traceTip;
+
+    @Param({"2.0", "5.0"})
+    public double scale;
+
+    private StubWorld stub;
+    private World world;
+    private PendulumChain chain;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.stub = new StubWorld();
+        this.world = this.stub.world();
+        this.chain = BenchChains.create(this.world, this.segments, 11L);
+        this.chain.particleStyle(this.style);
+        this.chain.traceTip(this.traceTip);
+        this.chain.scale(this.scale);
+        // one step so the tip trail has a previous position to interpolate from
+        this.chain.stepTick(BenchChains.TICK_SECONDS);
+    }
+
+    @Benchmark
+    public void render(Emitted emitted) {
+        final long before = this.stub.particleCalls();
+        this.chain.render(this.world);
+        emitted.particleCalls += this.stub.particleCalls() - before;
+    }
+
+    // the stub world boxes its call arguments, so read gc.alloc.rate.norm alongside particleCalls
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Emitted {
+        public long particleCalls;
+    }
+}
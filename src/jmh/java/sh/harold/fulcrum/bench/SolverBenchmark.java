@@ -0,0 +1,79 @@
+package sh.harold.fulcrum.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import sh.harold.fulcrum.physics.PendulumChain;
+import sh.harold.fulcrum.physics.PoseType;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolverBenchmark {
+
+    @Param({"1", "2", "4", "8", "12", "24", "48"})
+    public int segments;
+
+    @Param({"10", "40", "80"})
+    public int substeps;
+
+    @Param({"8", "20", "30"})
+    public int iterations;
+
+    private PendulumChain chain;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.chain = BenchChains.create(new StubWorld().world(), this.segments, 42L);
+        this.chain.substeps(this.substeps);
+        this.chain.iterations(this.iterations);
+    }
+
+    @Setup(Level.Iteration)
+    public void rewind() {
+        // keep every iteration on the same chaotic trajectory instead of a chain that has drifted to rest
+        this.chain.resetPose(PoseType.RANDOMIZED, new SplittableRandom(42L));
+    }
+
+    @Benchmark
+    public void stepTick() {
+        this.chain.stepTick(BenchChains.TICK_SECONDS);
+    }
+
+    // ropes take the even/odd rope projection instead of the rigid passes; kept apart so its lengths don't
+    // multiply the rigid matrix
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public static class Rope {
+
+        @Param({"64", "256", "512"})
+        public int links;
+
+        private PendulumChain chain;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            this.chain = BenchChains.create(new StubWorld().world(), 1, 42L);
+            this.chain.configureRope(this.links, 0.1, 0.2);
+        }
+
+        @Setup(Level.Iteration)
+        public void rewind() {
+            this.chain.resetPose(PoseType.RIGHT, new SplittableRandom(42L));
+        }
+
+        @Benchmark
+        public void stepTick() {
+            this.chain.stepTick(BenchChains.TICK_SECONDS);
+        }
+    }
+}
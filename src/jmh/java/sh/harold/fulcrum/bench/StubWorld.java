@@ -0,0 +1,82 @@
+package sh.harold.fulcrum.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+final class StubWorld implements InvocationHandler {
+
+    private static final UUID WORLD_ID = new UUID(0L, 0L);
+
+    private final World world;
+    private final Player viewer;
+    private long particleCalls;
+
+    StubWorld() {
+        this.world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, this);
+        // a single onlooker a few blocks in front of the bench anchor so render passes are not skipped
+        this.viewer = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class}, this);
+    }
+
+    World world() {
+        return this.world;
+    }
+
+    long particleCalls() {
+        return this.particleCalls;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "spawnParticle" -> {
+                this.particleCalls++;
+                yield null;
+            }
+            case "getUID" -> WORLD_ID;
+            case "getName" -> "bench";
+            case "isChunkLoaded" -> true;
+            case "getPlayers", "getNearbyPlayers" -> List.of(this.viewer);
+            case "getWorld" -> this.world;
+            case "getLocation" -> new Location(this.world, 0.5, 100.5, 8.5);
+            case "isOnline", "isValid" -> true;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> proxy == this.viewer ? "StubViewer" : "StubWorld";
+            default -> defaultValue(method.getReturnType());
+        };
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
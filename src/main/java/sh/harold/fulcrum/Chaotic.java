@@ -1,5 +1,7 @@
 package sh.harold.fulcrum;
 
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -19,13 +21,18 @@ import net.kyori.adventure.text.Component;
 import sh.harold.fulcrum.command.SelectionListener;
 import sh.harold.fulcrum.command.SelectionSession;
 import sh.harold.fulcrum.dialog.PendulumDialogService;
+import sh.harold.fulcrum.physics.ChainStats;
 import sh.harold.fulcrum.physics.PendulumChain;
 import sh.harold.fulcrum.physics.PoseType;
+import sh.harold.fulcrum.physics.RollingHistogram;
+import sh.harold.fulcrum.physics.TrajectoryRecorder;
+import sh.harold.fulcrum.sim.ChunkResidencyListener;
 import sh.harold.fulcrum.sim.PendulumManager;
+import sh.harold.fulcrum.sim.PendulumSettings;
 
 public final class Chaotic extends JavaPlugin {
 
-    private static final int MAX_CHAINS = 24;
+    private static final int MAX_CHAINS = 128;
 
     private final Map<UUID, SelectionSession> selectionSessions = new ConcurrentHashMap<>();
     private PendulumManager manager;
@@ -39,13 +46,24 @@ public final class Chaotic extends JavaPlugin {
             this.getServer().getPluginManager().disablePlugin(this);
             return;
         }
-        this.manager = new PendulumManager(this);
+        this.saveDefaultConfig();
+        this.manager = new PendulumManager(this, PendulumSettings.from(this.getConfig()));
         this.selectionListener = new SelectionListener(this.selectionSessions, this.manager, MAX_CHAINS);
         this.dialogService = new PendulumDialogService(this, this.manager);
 
         this.getServer().getPluginManager().registerEvents(this.selectionListener, this);
+        this.getServer().getPluginManager().registerEvents(new ChunkResidencyListener(this.manager), this);
         this.registerCommands();
+        this.manager.restoreSaved();
     }
+
+    @Override
+    public void onDisable() {
+        if (this.manager != null) {
+            this.manager.shutdown();
+        }
+    }
+
     private boolean dialogAvailable() {
         try {
             Class.forName("net.kyori.adventure.dialog.DialogLike", false, this.getClassLoader());
@@ -63,9 +81,9 @@ public final class Chaotic extends JavaPlugin {
     }
 
     private LiteralCommandNode<CommandSourceStack> buildRootCommand() {
+        // everything but stats acts on or around the sender, so only stats is open to the console
         return Commands.literal("pendulum")
-            .requires(stack -> stack.getSender() instanceof Player)
-            .then(Commands.literal("setpoint").executes(ctx -> {
+            .then(Commands.literal("setpoint").requires(Chaotic::isPlayer).executes(ctx -> {
                 final Player player = playerOrWarn(ctx.getSource());
                 if (player == null) {
                     return Command.SINGLE_SUCCESS;
@@ -77,7 +95,7 @@ public final class Chaotic extends JavaPlugin {
                 this.selectionListener.requestSelection(player);
                 return Command.SINGLE_SUCCESS;
             }))
-            .then(Commands.literal("butterfly").executes(ctx -> {
+            .then(Commands.literal("butterfly").requires(Chaotic::isPlayer).executes(ctx -> {
                 final Player player = playerOrWarn(ctx.getSource());
                 if (player == null) {
                     return Command.SINGLE_SUCCESS;
@@ -89,9 +107,9 @@ public final class Chaotic extends JavaPlugin {
                 this.selectionListener.requestButterflySelection(player);
                 return Command.SINGLE_SUCCESS;
             }))
-            .then(Commands.literal("start").then(Commands.argument("ids", StringArgumentType.greedyString()).executes(ctx -> handleStartStop(ctx.getSource(), StringArgumentType.getString(ctx, "ids"), true))))
-            .then(Commands.literal("stop").then(Commands.argument("ids", StringArgumentType.greedyString()).executes(ctx -> handleStartStop(ctx.getSource(), StringArgumentType.getString(ctx, "ids"), false))))
-            .then(Commands.literal("setpos").then(Commands.argument("pose", StringArgumentType.word())
+            .then(Commands.literal("start").requires(Chaotic::isPlayer).then(Commands.argument("ids", StringArgumentType.greedyString()).executes(ctx -> handleStartStop(ctx.getSource(), StringArgumentType.getString(ctx, "ids"), true))))
+            .then(Commands.literal("stop").requires(Chaotic::isPlayer).then(Commands.argument("ids", StringArgumentType.greedyString()).executes(ctx -> handleStartStop(ctx.getSource(), StringArgumentType.getString(ctx, "ids"), false))))
+            .then(Commands.literal("setpos").requires(Chaotic::isPlayer).then(Commands.argument("pose", StringArgumentType.word())
                 .then(Commands.argument("id", IntegerArgumentType.integer(1)).executes(ctx -> {
                     final Player player = playerOrWarn(ctx.getSource());
                     if (player == null) {
@@ -113,7 +131,15 @@ public final class Chaotic extends JavaPlugin {
                     player.sendMessage(Component.text("Pendulum #" + id + " reset to " + pose.name().toLowerCase() + " pose."));
                     return Command.SINGLE_SUCCESS;
                 }))))
-            .then(Commands.literal("remove").then(Commands.argument("id", IntegerArgumentType.integer(1)).executes(ctx -> {
+            .then(Commands.literal("record").requires(Chaotic::isPlayer).then(Commands.argument("id", IntegerArgumentType.integer(1))
+                .executes(ctx -> handleRecord(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "id")))))
+            .then(Commands.literal("replay").requires(Chaotic::isPlayer).then(Commands.argument("id", IntegerArgumentType.integer(1))
+                .then(Commands.argument("file", StringArgumentType.word())
+                    .executes(ctx -> handleReplay(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "id"), StringArgumentType.getString(ctx, "file"))))))
+            .then(Commands.literal("stats")
+                .executes(ctx -> handleStats(ctx.getSource(), null))
+                .then(Commands.argument("id", IntegerArgumentType.integer(1)).executes(ctx -> handleStats(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "id")))))
+            .then(Commands.literal("remove").requires(Chaotic::isPlayer).then(Commands.argument("id", IntegerArgumentType.integer(1)).executes(ctx -> {
                 final Player player = playerOrWarn(ctx.getSource());
                 if (player == null) {
                     return Command.SINGLE_SUCCESS;
@@ -127,7 +153,7 @@ public final class Chaotic extends JavaPlugin {
                 player.sendMessage(Component.text("Removed pendulum #" + id + "."));
                 return Command.SINGLE_SUCCESS;
             })))
-            .then(Commands.argument("id", IntegerArgumentType.integer(1)).executes(ctx -> {
+            .then(Commands.argument("id", IntegerArgumentType.integer(1)).requires(Chaotic::isPlayer).executes(ctx -> {
                 final Player player = playerOrWarn(ctx.getSource());
                 if (player == null) {
                     return Command.SINGLE_SUCCESS;
@@ -152,6 +178,10 @@ public final class Chaotic extends JavaPlugin {
                     player.sendMessage(Component.text("No pendulum #" + id + " exists."));
                     continue;
                 }
+                if (chain.replay() != null) {
+                    // either way the solver takes over again
+                    chain.replay(null);
+                }
                 if (start && !chain.configured()) {
                     player.sendMessage(Component.text("Pendulum #" + id + " is not configured yet. Run /pendulum " + id + " first."));
                     continue;
@@ -165,6 +195,123 @@ public final class Chaotic extends JavaPlugin {
         return Command.SINGLE_SUCCESS;
     }
 
+    private int handleRecord(CommandSourceStack source, int id) {
+        final Player player = playerOrWarn(source);
+        if (player == null) {
+            return Command.SINGLE_SUCCESS;
+        }
+        final PendulumChain chain = this.manager.get(id).orElse(null);
+        if (chain == null) {
+            player.sendMessage(Component.text("No pendulum #" + id + " exists."));
+            return Command.SINGLE_SUCCESS;
+        }
+        if (chain.recorder() != null) {
+            final TrajectoryRecorder recorder = this.manager.stopRecording(chain);
+            final String name = recorder.file().getFileName().toString();
+            if (recorder.failure() != null) {
+                player.sendMessage(Component.text("Recording pendulum #" + id + " to " + name + " failed: " + recorder.failure().getMessage()));
+            } else {
+                player.sendMessage(Component.text("Stopped recording pendulum #" + id + ": " + recorder.frames() + " ticks saved as " + name + "."));
+            }
+            return Command.SINGLE_SUCCESS;
+        }
+        if (!chain.configured()) {
+            player.sendMessage(Component.text("Pendulum #" + id + " is not configured yet. Run /pendulum " + id + " first."));
+            return Command.SINGLE_SUCCESS;
+        }
+        final TrajectoryRecorder recorder = this.manager.startRecording(chain);
+        player.sendMessage(Component.text("Recording pendulum #" + id + " to " + recorder.file().getFileName() + ". Run /pendulum record " + id + " again to stop."));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int handleReplay(CommandSourceStack source, int id, String name) {
+        final Player player = playerOrWarn(source);
+        if (player == null) {
+            return Command.SINGLE_SUCCESS;
+        }
+        final PendulumChain chain = this.manager.get(id).orElse(null);
+        if (chain == null) {
+            player.sendMessage(Component.text("No pendulum #" + id + " exists."));
+            return Command.SINGLE_SUCCESS;
+        }
+        final Path file = this.manager.recordingFile(name);
+        if (file == null) {
+            player.sendMessage(Component.text("Recordings are read from " + this.manager.recordingsFolder() + "; give just the file name."));
+            return Command.SINGLE_SUCCESS;
+        }
+        this.manager.startReplay(chain, file).whenComplete((replay, error) -> {
+            if (error instanceof NoSuchFileException) {
+                player.sendMessage(Component.text("No recording named " + file.getFileName() + "."));
+            } else if (error != null) {
+                player.sendMessage(Component.text("Could not replay " + file.getFileName() + ": " + error.getMessage()));
+            } else {
+                player.sendMessage(Component.text("Pendulum #" + id + " is replaying " + file.getFileName() + " (" + replay.frames() + " ticks, looping). /pendulum stop " + id + " ends it."));
+            }
+        });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int handleStats(CommandSourceStack source, Integer id) {
+        final CommandSender sender = source.getSender();
+        if (id == null) {
+            int running = 0;
+            int sleeping = 0;
+            int particles = 0;
+            int entityUpdates = 0;
+            long stepMean = 0L;
+            long renderMean = 0L;
+            for (final PendulumChain chain : this.manager.chains()) {
+                final ChainStats stats = chain.stats();
+                sleeping += chain.sleeping() ? 1 : 0;
+                particles += stats.particlesLastTick();
+                entityUpdates += stats.entityUpdatesLastTick();
+                // a resting chain skips its step, but its histogram still holds the cost from when it ran
+                if (!chain.resting()) {
+                    running++;
+                    stepMean += stats.step().summary().mean();
+                }
+                renderMean += stats.render().summary().mean();
+            }
+            sender.sendMessage(Component.text("Pendulums: " + this.manager.chains().size() + " (" + running + " running, " + sleeping + " asleep) in " + this.manager.groupCount() + " region groups"));
+            sender.sendMessage(Component.text("Region tick: " + formatTimings(this.manager.groupTickCost().summary())));
+            sender.sendMessage(Component.text("Load governor: pressure " + this.manager.governorPressure() + "/" + this.manager.governorMaxPressure()));
+            if (this.manager.particleBudget() > 0) {
+                sender.sendMessage(Component.text("Particle budget: " + this.manager.particlesAllocated() + "/" + this.manager.particleBudget() + " allocated per tick"));
+            }
+            sender.sendMessage(Component.text("Per tick: ~%.1fµs physics, ~%.1fµs render, %d particles, %d entity updates".formatted(stepMean / 1000.0, renderMean / 1000.0, particles, entityUpdates)));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        final PendulumChain chain = this.manager.get(id).orElse(null);
+        if (chain == null) {
+            sender.sendMessage(Component.text("No pendulum #" + id + " exists."));
+            return Command.SINGLE_SUCCESS;
+        }
+        final ChainStats stats = chain.stats();
+        final String state = chain.replay() != null ? "replaying" : chain.sleeping() ? "asleep" : chain.resting() ? "stopped" : "running";
+        sender.sendMessage(Component.text("Pendulum #" + id + ": " + state + ", last step " + chain.executedSubsteps() + " substeps / " + chain.executedIterations() + " passes"));
+        sender.sendMessage(Component.text("Priority " + chain.priority() + ", quality level " + chain.qualityLevel() + "/" + PendulumChain.MAX_QUALITY_LEVEL + ", particles " + chain.particleDemand() + " wanted / " + allowanceText(chain.particleAllowance())));
+        sender.sendMessage(Component.text("Physics: " + formatTimings(stats.step().summary())));
+        sender.sendMessage(Component.text("Render: " + formatTimings(stats.render().summary())));
+        sender.sendMessage(Component.text("Last tick: " + stats.particlesLastTick() + " particles, " + stats.entityUpdatesLastTick() + " entity updates, " + chain.asyncLagTicks() + " async lag ticks total"));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static String allowanceText(int allowance) {
+        return allowance == Integer.MAX_VALUE ? "unlimited" : allowance + " allowed";
+    }
+
+    private static String formatTimings(RollingHistogram.Summary summary) {
+        if (summary.samples() == 0) {
+            return "no samples yet";
+        }
+        return "p50 %.1fµs | p99 %.1fµs | max %.1fµs (%d ticks)".formatted(summary.p50() / 1000.0, summary.p99() / 1000.0, summary.max() / 1000.0, summary.samples());
+    }
+
+    private static boolean isPlayer(CommandSourceStack stack) {
+        return stack.getSender() instanceof Player;
+    }
+
     private static Player playerOrWarn(CommandSourceStack source) {
         final CommandSender sender = source.getSender();
         if (sender instanceof Player player) {
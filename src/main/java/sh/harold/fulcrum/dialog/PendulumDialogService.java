@@ -22,9 +22,11 @@ import net.kyori.adventure.text.event.ClickCallback;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
+import sh.harold.fulcrum.physics.IntegratorType;
 import sh.harold.fulcrum.physics.PendulumChain;
 import sh.harold.fulcrum.physics.ParticleStyle;
 import sh.harold.fulcrum.physics.PoseType;
+import sh.harold.fulcrum.physics.SolverMode;
 import sh.harold.fulcrum.physics.TipTrailStyle;
 import sh.harold.fulcrum.sim.PendulumManager;
 
@@ -40,6 +42,14 @@ public final class PendulumDialogService {
     private static final double LENGTH_MAX = 3.0;
     private static final double MASS_MIN = 0.1;
     private static final double MASS_MAX = 25.0;
+    private static final int MIN_ROPE_SEGMENTS = 16;
+    private static final int MAX_ROPE_SEGMENTS = 512;
+    private static final double ROPE_LENGTH_MIN = 0.05;
+    private static final double ROPE_LENGTH_MAX = 0.5;
+    private static final int PRIORITY_RANGE = 5;
+    private static final int SUBSTEPS_MAX = 40;
+    private static final int ITERATIONS_MAX = 20;
+    private static final double HISTORY_SECONDS_MAX = 30.0;
 
     private final Plugin plugin;
     private final PendulumManager manager;
@@ -59,7 +69,7 @@ public final class PendulumDialogService {
     }
 
     private Dialog segmentCountDialog(PendulumChain chain) {
-        final int currentSegments = Math.max(1, chain.segmentCount() == 0 ? 3 : chain.segmentCount());
+        final int currentSegments = Math.max(1, chain.segmentCount() == 0 || chain.rope() ? 3 : chain.segmentCount());
         final List<DialogBody> body = List.of(
             DialogBody.plainMessage(Component.text("Pendulum #" + chain.id() + " in " + chain.anchor().getWorld().getName(), NamedTextColor.GOLD)),
             DialogBody.plainMessage(Component.text("Step 1: Choose how many links to simulate.", NamedTextColor.GRAY))
@@ -70,6 +80,25 @@ public final class PendulumDialogService {
                 .labelFormat("%s: %s")
                 .initial((float) currentSegments)
                 .step(1.0f)
+                .build(),
+            DialogInput.bool("rope", Component.text("Rope Mode (uniform links)"), chain.rope(), "true", "false"),
+            DialogInput.numberRange("ropeSegments", Component.text("Rope Links"), (float) MIN_ROPE_SEGMENTS, (float) MAX_ROPE_SEGMENTS)
+                .width(200)
+                .labelFormat("%s: %s")
+                .initial((float) Math.max(MIN_ROPE_SEGMENTS, chain.rope() ? chain.segmentCount() : 64))
+                .step(8.0f)
+                .build(),
+            DialogInput.numberRange("ropeLength", Component.text("Rope Link Length (Meters)"), (float) ROPE_LENGTH_MIN, (float) ROPE_LENGTH_MAX)
+                .width(200)
+                .labelFormat("%s: %s")
+                .initial((float) (chain.rope() ? chain.segmentLength(0) : 0.1))
+                .step(0.01f)
+                .build(),
+            DialogInput.numberRange("ropeMass", Component.text("Rope Link Mass (Kg)"), (float) MASS_MIN, 5.0f)
+                .width(200)
+                .labelFormat("%s: %s")
+                .initial((float) (chain.rope() ? chain.massAt(1) : 0.2))
+                .step(0.1f)
                 .build()
         );
 
@@ -80,8 +109,18 @@ public final class PendulumDialogService {
                 if (player == null) {
                     return;
                 }
-                final int requested = readInt(response.getFloat("segments"), 1, MAX_SEGMENTS, currentSegments);
                 chain.active(false);
+                final Boolean rope = response.getBoolean("rope");
+                if (rope != null && rope) {
+                    final int links = readInt(response.getFloat("ropeSegments"), MIN_ROPE_SEGMENTS, MAX_ROPE_SEGMENTS, 64);
+                    final double linkLength = readDouble(response.getFloat("ropeLength"), 0.1, ROPE_LENGTH_MIN, ROPE_LENGTH_MAX);
+                    final double linkMass = readDouble(response.getFloat("ropeMass"), 0.2, MASS_MIN, 5.0);
+                    chain.configureRope(links, linkLength, linkMass);
+                    // hundreds of identical links are not worth a dialog each
+                    player.showDialog(this.summaryDialog(chain));
+                    return;
+                }
+                final int requested = readInt(response.getFloat("segments"), 1, MAX_SEGMENTS, currentSegments);
                 chain.configureSegments(requested);
                 chain.resetPose(PoseType.DOWN, ThreadLocalRandom.current());
                 player.showDialog(this.segmentDialog(chain, 0));
@@ -105,6 +144,7 @@ public final class PendulumDialogService {
         final double[] lengths = chain.segmentLengths();
         final double length = lengths[segmentIndex];
         final double mass = chain.massAt(nodeIndex);
+        final double compliance = chain.segmentCompliance(segmentIndex);
         final int total = chain.segmentCount();
 
         final List<DialogBody> body = List.of(
@@ -124,6 +164,12 @@ public final class PendulumDialogService {
                 .labelFormat("%s: %s")
                 .initial((float) mass)
                 .step(0.1f)
+                .build(),
+            DialogInput.numberRange("compliance", Component.text("Compliance (XPBD, m/N)"), 0.0f, (float) PendulumChain.MAX_COMPLIANCE)
+                .width(220)
+                .labelFormat("%s: %s")
+                .initial((float) compliance)
+                .step(0.00005f)
                 .build()
         );
 
@@ -175,7 +221,12 @@ public final class PendulumDialogService {
     private Dialog summaryDialog(PendulumChain chain) {
         final StringBuilder summary = new StringBuilder();
         final double[] lengths = chain.segmentLengths();
-        for (int i = 0; i < lengths.length; i++) {
+        if (chain.rope() && lengths.length > 0) {
+            summary.append("Rope: ").append(lengths.length).append(" links of ")
+                .append("%.2fm".formatted(lengths[0]))
+                .append(" | mass ").append("%.2fkg".formatted(chain.massAt(1))).append(" each");
+        }
+        for (int i = 0; i < lengths.length && !chain.rope(); i++) {
             final double mass = chain.massAt(i + 1);
             summary.append("Link ").append(i + 1).append(": ")
                 .append("%.2fm".formatted(lengths[i]))
@@ -191,7 +242,7 @@ public final class PendulumDialogService {
             DialogBody.plainMessage(Component.text(summary.toString(), NamedTextColor.GRAY), 320)
         );
 
-        final List<DialogInput> inputs = List.of(
+        final List<DialogInput> displayInputs = List.of(
             DialogInput.numberRange("scale", Component.text("Scale (Blocks per Meter)"), 1.0f, 5.0f)
                 .width(200)
                 .labelFormat("%s: %s")
@@ -202,29 +253,63 @@ public final class PendulumDialogService {
                 .width(200)
                 .labelVisible(true)
                 .build(),
+            DialogInput.bool("displayEntities", Component.text("Fish/Chicken as Display Entities"), chain.displayEntities(), "true", "false"),
+            DialogInput.bool("rodDisplays", Component.text("Weighted Rods as Block Displays"), chain.rodDisplays(), "true", "false"),
             DialogInput.bool("trace", Component.text("Trace Tip"), chain.traceTip(), "true", "false"),
             DialogInput.singleOption("tipStyle", Component.text("Tip Trail Style"), tipStyleOptions(chain.tipTrailStyle()))
                 .width(200)
                 .labelVisible(true)
                 .build(),
+            DialogInput.numberRange("history", Component.text("Long Exposure (Seconds)"), 0.0f, (float) HISTORY_SECONDS_MAX)
+                .width(200)
+                .labelFormat("%s: %s")
+                .initial((float) chain.historySeconds())
+                .step(1.0f)
+                .build(),
             DialogInput.numberRange("drag", Component.text("Drag"), 0.001f, 0.05f)
                 .width(200)
                 .labelFormat("%s: %s")
                 .initial((float) chain.drag())
                 .step(0.001f)
                 .build(),
-            DialogInput.numberRange("substeps", Component.text("Substeps"), 1.0f, 40.0f)
+            DialogInput.numberRange("substeps", Component.text("Substeps"), 1.0f, (float) SUBSTEPS_MAX)
                 .width(200)
                 .labelFormat("%s: %s")
                 .initial((float) chain.substeps())
                 .step(1.0f)
                 .build(),
-            DialogInput.numberRange("iterations", Component.text("Iterations"), 1.0f, 20.0f)
+            DialogInput.numberRange("iterations", Component.text("Iterations"), 1.0f, (float) ITERATIONS_MAX)
                 .width(200)
                 .labelFormat("%s: %s")
                 .initial((float) chain.iterations())
                 .step(1.0f)
                 .build(),
+            DialogInput.singleOption("integrator", Component.text("Integrator"), integratorOptions(chain.integratorType()))
+                .width(200)
+                .labelVisible(true)
+                .build()
+        );
+        // ropes always use the even/odd rope projection, so a solver choice would silently do nothing
+        final List<DialogInput> solverInputs = chain.rope() ? List.of() : List.of(
+            DialogInput.singleOption("solver", Component.text("Constraint Solver"), solverOptions(chain.solverMode()))
+                .width(200)
+                .labelVisible(true)
+                .build()
+        );
+        final List<DialogInput> tuningInputs = List.of(
+            DialogInput.bool("adaptive", Component.text("Adaptive Substeps"), chain.adaptive(), "true", "false"),
+            DialogInput.numberRange("minSubsteps", Component.text("Min Substeps (Adaptive)"), 1.0f, (float) SUBSTEPS_MAX)
+                .width(200)
+                .labelFormat("%s: %s")
+                .initial((float) chain.minSubsteps())
+                .step(1.0f)
+                .build(),
+            DialogInput.numberRange("priority", Component.text("Priority Under Load"), (float) -PRIORITY_RANGE, (float) PRIORITY_RANGE)
+                .width(200)
+                .labelFormat("%s: %s")
+                .initial((float) chain.priority())
+                .step(1.0f)
+                .build(),
             DialogInput.numberRange("gravity", Component.text("Gravity"), 5.0f, 15.0f)
                 .width(200)
                 .labelFormat("%s: %s")
@@ -239,14 +324,20 @@ public final class PendulumDialogService {
                 .step(0.1f)
                 .build()
         );
+        final List<DialogInput> inputs = this.merge(displayInputs, solverInputs, tuningInputs);
 
-        final ActionButton back = ActionButton.builder(Component.text("Edit last link"))
+        final ActionButton back = ActionButton.builder(Component.text(chain.rope() ? "Edit rope" : "Edit last link"))
             .width(150)
             .action(customClick((response, audience) -> this.runSync(() -> {
                 final Player player = asPlayer(audience);
                 if (player == null) {
                     return;
                 }
+                // rope links are uniform and far below the rigid ranges; they are edited as a whole
+                if (chain.rope()) {
+                    player.showDialog(this.segmentCountDialog(chain));
+                    return;
+                }
                 player.showDialog(this.segmentDialog(chain, Math.max(0, chain.segmentCount() - 1)));
             })))
             .build();
@@ -260,24 +351,46 @@ public final class PendulumDialogService {
                 }
                 final double scale = readDouble(response.getFloat("scale"), chain.scale(), 1.0, 5.0);
                 final double drag = readDouble(response.getFloat("drag"), chain.drag(), 0.001, 0.05);
-                final int substeps = readInt(response.getFloat("substeps"), 1, 80, chain.substeps());
-                final int iterations = readInt(response.getFloat("iterations"), 1, 30, chain.iterations());
+                final int substeps = readInt(response.getFloat("substeps"), 1, SUBSTEPS_MAX, chain.substeps());
+                final int iterations = readInt(response.getFloat("iterations"), 1, ITERATIONS_MAX, chain.iterations());
+                final IntegratorType integrator = parseIntegrator(response.getText("integrator"), chain.integratorType());
+                final SolverMode solver = parseSolver(response.getText("solver"), chain.solverMode());
+                final Boolean adaptive = response.getBoolean("adaptive");
+                final int minSubsteps = readInt(response.getFloat("minSubsteps"), 1, SUBSTEPS_MAX, chain.minSubsteps());
+                final int priority = readInt(response.getFloat("priority"), -PRIORITY_RANGE, PRIORITY_RANGE, chain.priority());
                 final double gravity = readDouble(response.getFloat("gravity"), chain.gravity(), 5.0, 15.0);
                 final ParticleStyle style = parseStyle(response.getText("style"), chain.particleStyle());
+                final Boolean displayEntities = response.getBoolean("displayEntities");
+                final Boolean rodDisplays = response.getBoolean("rodDisplays");
                 final Boolean trace = response.getBoolean("trace");
                 final TipTrailStyle tipStyle = parseTipStyle(response.getText("tipStyle"), chain.tipTrailStyle());
+                final double history = readDouble(response.getFloat("history"), chain.historySeconds(), 0.0, HISTORY_SECONDS_MAX);
                 final Boolean nodes = response.getBoolean("nodes");
                 final double nodeSize = readDouble(response.getFloat("nodeSize"), chain.nodeParticleSize(), 0.2, 2.5);
                 chain.scale(scale);
                 chain.particleStyle(style);
+                if (displayEntities != null) {
+                    chain.displayEntities(displayEntities);
+                }
+                if (rodDisplays != null) {
+                    chain.rodDisplays(rodDisplays);
+                }
                 if (nodes != null) {
                     chain.showNodes(nodes);
                 }
                 chain.nodeParticleSize((float) nodeSize);
                 chain.tipTrailStyle(tipStyle);
+                chain.historySeconds(history);
                 chain.drag(drag);
                 chain.substeps(substeps);
                 chain.iterations(iterations);
+                chain.minSubsteps(minSubsteps);
+                chain.solverMode(solver);
+                chain.integratorType(integrator);
+                if (adaptive != null) {
+                    chain.adaptive(adaptive);
+                }
+                chain.priority(priority);
                 chain.gravity(gravity);
                 chain.traceTip(trace != null ? trace : chain.traceTip());
                 chain.resetPose(PoseType.DOWN, ThreadLocalRandom.current());
@@ -336,10 +449,16 @@ public final class PendulumDialogService {
     }
 
     private void applySegmentInputs(DialogResponseView response, PendulumChain chain, int segmentIndex) {
+        if (chain.rope()) {
+            // the rigid length and mass ranges would clamp a rope link up to ten times its size
+            return;
+        }
         final double length = readDouble(response.getFloat("length"), chain.segmentLengths()[segmentIndex], LENGTH_MIN, LENGTH_MAX);
         final double mass = readDouble(response.getFloat("mass"), chain.massAt(segmentIndex + 1), MASS_MIN, MASS_MAX);
+        final double compliance = readDouble(response.getFloat("compliance"), chain.segmentCompliance(segmentIndex), 0.0, PendulumChain.MAX_COMPLIANCE);
         chain.setSegmentLength(segmentIndex, length);
         chain.setMass(segmentIndex + 1, mass);
+        chain.setSegmentCompliance(segmentIndex, compliance);
         chain.active(false);
     }
 
@@ -395,6 +514,53 @@ public final class PendulumDialogService {
         }
     }
 
+    private List<SingleOptionDialogInput.OptionEntry> integratorOptions(IntegratorType current) {
+        final List<SingleOptionDialogInput.OptionEntry> entries = new java.util.ArrayList<>();
+        for (final IntegratorType type : IntegratorType.values()) {
+            final String label = switch (type) {
+                case VERLET -> "Verlet + constraints";
+                case ARTICULATED -> "Articulated body (RK4, exact rods)";
+            };
+            entries.add(SingleOptionDialogInput.OptionEntry.create(type.name().toLowerCase(), Component.text(label), type == current));
+        }
+        return entries;
+    }
+
+    private IntegratorType parseIntegrator(String id, IntegratorType fallback) {
+        if (id == null) {
+            return fallback;
+        }
+        try {
+            return IntegratorType.valueOf(id.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return fallback;
+        }
+    }
+
+    private List<SingleOptionDialogInput.OptionEntry> solverOptions(SolverMode current) {
+        final List<SingleOptionDialogInput.OptionEntry> entries = new java.util.ArrayList<>();
+        for (final SolverMode mode : SolverMode.values()) {
+            final String label = switch (mode) {
+                case GAUSS_SEIDEL -> "Iterative (Gauss-Seidel)";
+                case DIRECT -> "Direct (whole chain per pass)";
+                case XPBD -> "XPBD (compliant rods)";
+            };
+            entries.add(SingleOptionDialogInput.OptionEntry.create(mode.name().toLowerCase(), Component.text(label), mode == current));
+        }
+        return entries;
+    }
+
+    private SolverMode parseSolver(String id, SolverMode fallback) {
+        if (id == null) {
+            return fallback;
+        }
+        try {
+            return SolverMode.valueOf(id.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return fallback;
+        }
+    }
+
     @SafeVarargs
     private List<DialogInput> merge(List<DialogInput>... lists) {
         final List<DialogInput> merged = new java.util.ArrayList<>();
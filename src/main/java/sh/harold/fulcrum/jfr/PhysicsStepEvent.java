@@ -0,0 +1,50 @@
+package sh.harold.fulcrum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sh.harold.fulcrum.PhysicsStep")
+@Label("Pendulum Physics Step")
+@Description("One tick of pendulum physics; batched steps report the lead chain and the lane count")
+@Category({"Chaotic", "Physics"})
+@Enabled(false)
+@StackTrace(false)
+public final class PhysicsStepEvent extends Event {
+
+    @Label("Chain Id")
+    private int chainId;
+
+    @Label("Segments")
+    private int segments;
+
+    @Label("Substeps")
+    private int substeps;
+
+    @Label("Constraint Passes")
+    private int iterations;
+
+    @Label("Lanes")
+    private int lanes;
+
+    @Label("Async")
+    private boolean async;
+
+    public void complete(int chainId, int segments, int substeps, int iterations, int lanes, boolean async) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return;
+        }
+        this.chainId = chainId;
+        this.segments = segments;
+        this.substeps = substeps;
+        this.iterations = iterations;
+        this.lanes = lanes;
+        this.async = async;
+        this.commit();
+    }
+}
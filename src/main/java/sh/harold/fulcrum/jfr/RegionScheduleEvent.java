@@ -0,0 +1,42 @@
+package sh.harold.fulcrum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sh.harold.fulcrum.RegionSchedule")
+@Label("Pendulum Region Schedule Change")
+@Description("A region group started, stopped, parked, woke, suspended or resumed its task")
+@Category({"Chaotic", "Scheduling"})
+@Enabled(false)
+@StackTrace(false)
+public final class RegionScheduleEvent extends Event {
+
+    @Label("Action")
+    private String action;
+
+    @Label("Chunk X")
+    private int chunkX;
+
+    @Label("Chunk Z")
+    private int chunkZ;
+
+    @Label("Period (ticks)")
+    private long period;
+
+    public static void emit(String action, int chunkX, int chunkZ, long period) {
+        final RegionScheduleEvent event = new RegionScheduleEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.action = action;
+        event.chunkX = chunkX;
+        event.chunkZ = chunkZ;
+        event.period = period;
+        event.commit();
+    }
+}
@@ -0,0 +1,46 @@
+package sh.harold.fulcrum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sh.harold.fulcrum.RegionTick")
+@Label("Pendulum Region Tick")
+@Description("Stepping and rendering every pendulum anchored in one chunk")
+@Category({"Chaotic", "Scheduling"})
+@Enabled(false)
+@StackTrace(false)
+public final class RegionTickEvent extends Event {
+
+    @Label("Chunk X")
+    private int chunkX;
+
+    @Label("Chunk Z")
+    private int chunkZ;
+
+    @Label("Chains")
+    private int chains;
+
+    @Label("Awake Chains")
+    private int awake;
+
+    @Label("Parked")
+    private boolean parked;
+
+    public void complete(int chunkX, int chunkZ, int chains, int awake, boolean parked) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return;
+        }
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.chains = chains;
+        this.awake = awake;
+        this.parked = parked;
+        this.commit();
+    }
+}
@@ -0,0 +1,46 @@
+package sh.harold.fulcrum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sh.harold.fulcrum.RenderPass")
+@Label("Pendulum Render Pass")
+@Description("Particles and entity updates sent for one pendulum in one tick")
+@Category({"Chaotic", "Rendering"})
+@Enabled(false)
+@StackTrace(false)
+public final class RenderPassEvent extends Event {
+
+    @Label("Chain Id")
+    private int chainId;
+
+    @Label("Segments")
+    private int segments;
+
+    @Label("Viewers")
+    private int viewers;
+
+    @Label("Particles")
+    private int particles;
+
+    @Label("Entity Updates")
+    private int entityUpdates;
+
+    public void complete(int chainId, int segments, int viewers, int particles, int entityUpdates) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return;
+        }
+        this.chainId = chainId;
+        this.segments = segments;
+        this.viewers = viewers;
+        this.particles = particles;
+        this.entityUpdates = entityUpdates;
+        this.commit();
+    }
+}
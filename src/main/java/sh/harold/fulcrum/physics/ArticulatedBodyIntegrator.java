@@ -0,0 +1,307 @@
+package sh.harold.fulcrum.physics;
+
+// Reduced-coordinate engine: relative joint angles stepped with RK4, accelerations from Featherstone's
+// articulated-body algorithm. Everything lives in planar spatial vectors (omega, vx, vy) about the anchor,
+// so there are no frame transforms and rod lengths are exact by construction.
+final class ArticulatedBodyIntegrator implements ChainIntegrator {
+
+    private final PendulumChain chain;
+    private int syncedRevision = -1;
+    private int bodies;
+    private double[] angle = new double[0];
+    private double[] rate = new double[0];
+    private double[] startAngle = new double[0];
+    private double[] startRate = new double[0];
+    private double[] trialAngle = new double[0];
+    private double[] trialRate = new double[0];
+    private double[] sumAngle = new double[0];
+    private double[] sumRate = new double[0];
+    private double[] accel = new double[0];
+    private double[] axis = new double[0];
+    private double[] bias = new double[0];
+    private double[] inertia = new double[0];
+    private double[] force = new double[0];
+    private double[] inertiaAxis = new double[0];
+    private double[] divisor = new double[0];
+    private double[] torque = new double[0];
+
+    ArticulatedBodyIntegrator(PendulumChain chain) {
+        this.chain = chain;
+    }
+
+    @Override
+    public void advance(double dtTickSeconds) {
+        final ChainState s = this.chain.state();
+        final int substeps = this.chain.effectiveSubsteps();
+        final double dtSub = dtTickSeconds / substeps;
+        if (s.revision != this.syncedRevision || s.nodeCount - 1 != this.bodies) {
+            this.sync(s, this.chain.lastDtSub() > 0.0 ? this.chain.lastDtSub() : dtSub);
+        }
+
+        final double gravity = this.chain.gravity();
+        final double dragFactor = Math.max(0.0, 1.0 - this.chain.drag() * dtSub);
+        for (int sub = 0; sub < substeps; sub++) {
+            this.rungeKutta(s, dtSub, gravity);
+            for (int i = 0; i < this.bodies; i++) {
+                this.rate[i] *= dragFactor;
+            }
+            this.recordTip(s);
+        }
+        this.writeBack(s, dtSub);
+        this.chain.recordStep(substeps, 0, dtSub);
+    }
+
+    private void rungeKutta(ChainState s, double h, double gravity) {
+        final int n = this.bodies;
+        System.arraycopy(this.angle, 0, this.startAngle, 0, n);
+        System.arraycopy(this.rate, 0, this.startRate, 0, n);
+
+        // k1
+        this.accelerations(s, this.angle, this.rate, gravity);
+        for (int i = 0; i < n; i++) {
+            this.sumAngle[i] = this.rate[i];
+            this.sumRate[i] = this.accel[i];
+            this.trialAngle[i] = this.startAngle[i] + 0.5 * h * this.rate[i];
+            this.trialRate[i] = this.startRate[i] + 0.5 * h * this.accel[i];
+        }
+        // k2
+        this.accelerations(s, this.trialAngle, this.trialRate, gravity);
+        for (int i = 0; i < n; i++) {
+            final double k2Angle = this.trialRate[i];
+            this.sumAngle[i] += 2.0 * k2Angle;
+            this.sumRate[i] += 2.0 * this.accel[i];
+            this.trialAngle[i] = this.startAngle[i] + 0.5 * h * k2Angle;
+            this.trialRate[i] = this.startRate[i] + 0.5 * h * this.accel[i];
+        }
+        // k3
+        this.accelerations(s, this.trialAngle, this.trialRate, gravity);
+        for (int i = 0; i < n; i++) {
+            final double k3Angle = this.trialRate[i];
+            this.sumAngle[i] += 2.0 * k3Angle;
+            this.sumRate[i] += 2.0 * this.accel[i];
+            this.trialAngle[i] = this.startAngle[i] + h * k3Angle;
+            this.trialRate[i] = this.startRate[i] + h * this.accel[i];
+        }
+        // k4
+        this.accelerations(s, this.trialAngle, this.trialRate, gravity);
+        for (int i = 0; i < n; i++) {
+            this.sumAngle[i] += this.trialRate[i];
+            this.sumRate[i] += this.accel[i];
+            this.angle[i] = this.startAngle[i] + h / 6.0 * this.sumAngle[i];
+            this.rate[i] = this.startRate[i] + h / 6.0 * this.sumRate[i];
+        }
+    }
+
+    // articulated-body algorithm; leaves joint accelerations in accel
+    private void accelerations(ChainState s, double[] q, double[] qd, double gravity) {
+        final int n = this.bodies;
+        double absolute = 0.0;
+        double jointX = 0.0;
+        double jointY = 0.0;
+        double vw = 0.0;
+        double vx = 0.0;
+        double vy = 0.0;
+        for (int i = 0; i < n; i++) {
+            final int v3 = i * 3;
+            absolute += q[i];
+            final double length = s.segmentLength[i];
+            final double bodyX = jointX + Math.sin(absolute) * length;
+            final double bodyY = jointY - Math.cos(absolute) * length;
+
+            // unit rotation about the joint, seen from the anchor
+            final double sw = 1.0;
+            final double sx = jointY;
+            final double sy = -jointX;
+            this.axis[v3] = sw;
+            this.axis[v3 + 1] = sx;
+            this.axis[v3 + 2] = sy;
+
+            final double jw = sw * qd[i];
+            final double jx = sx * qd[i];
+            final double jy = sy * qd[i];
+            vw += jw;
+            vx += jx;
+            vy += jy;
+            // v x (S qd)
+            this.bias[v3] = 0.0;
+            this.bias[v3 + 1] = -vw * jy + vy * jw;
+            this.bias[v3 + 2] = vw * jx - vx * jw;
+
+            // point mass at the far end of the rod
+            final double m = Math.max(1e-6, s.mass[i + 1]);
+            final int i9 = i * 9;
+            this.inertia[i9] = m * (bodyX * bodyX + bodyY * bodyY);
+            this.inertia[i9 + 1] = -m * bodyY;
+            this.inertia[i9 + 2] = m * bodyX;
+            this.inertia[i9 + 3] = -m * bodyY;
+            this.inertia[i9 + 4] = m;
+            this.inertia[i9 + 5] = 0.0;
+            this.inertia[i9 + 6] = m * bodyX;
+            this.inertia[i9 + 7] = 0.0;
+            this.inertia[i9 + 8] = m;
+
+            // v x* (I v) minus gravity acting on the bob; the angular part of I v drops out in the plane
+            final double hx = this.inertia[i9 + 3] * vw + m * vx;
+            final double hy = this.inertia[i9 + 6] * vw + m * vy;
+            this.force[v3] = vx * hy - vy * hx + m * gravity * bodyX;
+            this.force[v3 + 1] = -vw * hy;
+            this.force[v3 + 2] = vw * hx + m * gravity;
+
+            jointX = bodyX;
+            jointY = bodyY;
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            final int v3 = i * 3;
+            final int i9 = i * 9;
+            final double sw = this.axis[v3];
+            final double sx = this.axis[v3 + 1];
+            final double sy = this.axis[v3 + 2];
+            final double uw = this.inertia[i9] * sw + this.inertia[i9 + 1] * sx + this.inertia[i9 + 2] * sy;
+            final double ux = this.inertia[i9 + 3] * sw + this.inertia[i9 + 4] * sx + this.inertia[i9 + 5] * sy;
+            final double uy = this.inertia[i9 + 6] * sw + this.inertia[i9 + 7] * sx + this.inertia[i9 + 8] * sy;
+            this.inertiaAxis[v3] = uw;
+            this.inertiaAxis[v3 + 1] = ux;
+            this.inertiaAxis[v3 + 2] = uy;
+            final double d = sw * uw + sx * ux + sy * uy;
+            final double u = -(sw * this.force[v3] + sx * this.force[v3 + 1] + sy * this.force[v3 + 2]);
+            this.divisor[i] = d;
+            this.torque[i] = u;
+            if (i == 0) {
+                continue;
+            }
+
+            final int p3 = v3 - 3;
+            final int p9 = i9 - 9;
+            final double cw = this.bias[v3];
+            final double cx = this.bias[v3 + 1];
+            final double cy = this.bias[v3 + 2];
+            final double[] ia = this.inertia;
+            final double u0 = uw;
+            final double u1 = ux;
+            final double u2 = uy;
+            // Ia = IA - U U^T / D, folded straight into the parent
+            final double a00 = ia[i9] - u0 * u0 / d;
+            final double a01 = ia[i9 + 1] - u0 * u1 / d;
+            final double a02 = ia[i9 + 2] - u0 * u2 / d;
+            final double a10 = ia[i9 + 3] - u1 * u0 / d;
+            final double a11 = ia[i9 + 4] - u1 * u1 / d;
+            final double a12 = ia[i9 + 5] - u1 * u2 / d;
+            final double a20 = ia[i9 + 6] - u2 * u0 / d;
+            final double a21 = ia[i9 + 7] - u2 * u1 / d;
+            final double a22 = ia[i9 + 8] - u2 * u2 / d;
+            ia[p9] += a00;
+            ia[p9 + 1] += a01;
+            ia[p9 + 2] += a02;
+            ia[p9 + 3] += a10;
+            ia[p9 + 4] += a11;
+            ia[p9 + 5] += a12;
+            ia[p9 + 6] += a20;
+            ia[p9 + 7] += a21;
+            ia[p9 + 8] += a22;
+            final double scale = u / d;
+            this.force[p3] += this.force[v3] + a00 * cw + a01 * cx + a02 * cy + u0 * scale;
+            this.force[p3 + 1] += this.force[v3 + 1] + a10 * cw + a11 * cx + a12 * cy + u1 * scale;
+            this.force[p3 + 2] += this.force[v3 + 2] + a20 * cw + a21 * cx + a22 * cy + u2 * scale;
+        }
+
+        double aw = 0.0;
+        double ax = 0.0;
+        double ay = 0.0;
+        for (int i = 0; i < n; i++) {
+            final int v3 = i * 3;
+            aw += this.bias[v3];
+            ax += this.bias[v3 + 1];
+            ay += this.bias[v3 + 2];
+            final double qdd = (this.torque[i] - (this.inertiaAxis[v3] * aw + this.inertiaAxis[v3 + 1] * ax + this.inertiaAxis[v3 + 2] * ay)) / this.divisor[i];
+            this.accel[i] = qdd;
+            aw += this.axis[v3] * qdd;
+            ax += this.axis[v3 + 1] * qdd;
+            ay += this.axis[v3 + 2] * qdd;
+        }
+    }
+
+    // joint angles and rates from whatever the positions currently say, e.g. after a pose reset or a verlet step
+    private void sync(ChainState s, double dtSub) {
+        this.ensureCapacity(s.nodeCount - 1);
+        double previousAngle = 0.0;
+        double previousRate = 0.0;
+        for (int i = 0; i < this.bodies; i++) {
+            final int j = i + 1;
+            final double dx = s.posX[j] - s.posX[i];
+            final double dy = s.posY[j] - s.posY[i];
+            final double lengthSquared = Math.max(1e-12, dx * dx + dy * dy);
+            final double ux = (s.posX[j] - s.prevX[j]) - (s.posX[i] - s.prevX[i]);
+            final double uy = (s.posY[j] - s.prevY[j]) - (s.posY[i] - s.prevY[i]);
+            final double absolute = Math.atan2(dx, -dy);
+            final double absoluteRate = (dx * uy - dy * ux) / lengthSquared / dtSub;
+            this.angle[i] = absolute - previousAngle;
+            this.rate[i] = absoluteRate - previousRate;
+            previousAngle = absolute;
+            previousRate = absoluteRate;
+        }
+        this.syncedRevision = s.revision;
+    }
+
+    // the tip is all the trail needs, so only the end of the chain is walked out between write-backs
+    private void recordTip(ChainState s) {
+        double absolute = 0.0;
+        double x = 0.0;
+        double y = 0.0;
+        for (int i = 0; i < this.bodies; i++) {
+            absolute += this.angle[i];
+            x += Math.sin(absolute) * s.segmentLength[i];
+            y -= Math.cos(absolute) * s.segmentLength[i];
+        }
+        s.tipPath.append(x, y);
+    }
+
+    // positions from angles, prev one substep back along the current velocity so the verlet path can take over
+    private void writeBack(ChainState s, double dtSub) {
+        double absolute = 0.0;
+        double absoluteRate = 0.0;
+        double x = 0.0;
+        double y = 0.0;
+        double vx = 0.0;
+        double vy = 0.0;
+        s.place(0, 0.0, 0.0);
+        for (int i = 0; i < this.bodies; i++) {
+            absolute += this.angle[i];
+            absoluteRate += this.rate[i];
+            final double length = s.segmentLength[i];
+            final double sin = Math.sin(absolute);
+            final double cos = Math.cos(absolute);
+            x += sin * length;
+            y -= cos * length;
+            vx += cos * length * absoluteRate;
+            vy += sin * length * absoluteRate;
+            s.posX[i + 1] = x;
+            s.posY[i + 1] = y;
+            s.prevX[i + 1] = x - vx * dtSub;
+            s.prevY[i + 1] = y - vy * dtSub;
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        this.bodies = count;
+        if (this.angle.length >= count) {
+            return;
+        }
+        this.angle = new double[count];
+        this.rate = new double[count];
+        this.startAngle = new double[count];
+        this.startRate = new double[count];
+        this.trialAngle = new double[count];
+        this.trialRate = new double[count];
+        this.sumAngle = new double[count];
+        this.sumRate = new double[count];
+        this.accel = new double[count];
+        this.divisor = new double[count];
+        this.torque = new double[count];
+        this.axis = new double[count * 3];
+        this.bias = new double[count * 3];
+        this.force = new double[count * 3];
+        this.inertiaAxis = new double[count * 3];
+        this.inertia = new double[count * 9];
+    }
+}
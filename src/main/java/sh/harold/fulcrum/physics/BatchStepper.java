@@ -0,0 +1,93 @@
+package sh.harold.fulcrum.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class BatchStepper {
+
+    private static final boolean VECTOR_MODULE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final List<Bucket> buckets = new ArrayList<>();
+    private final VectorLanes lanes;
+
+    private BatchStepper(VectorLanes lanes) {
+        this.lanes = lanes;
+    }
+
+    public static boolean available() {
+        return VECTOR_MODULE && VectorLanes.width() > 1;
+    }
+
+    public static BatchStepper create() {
+        if (!available()) {
+            throw new IllegalStateException("jdk.incubator.vector is not available; start the server with --add-modules=jdk.incubator.vector");
+        }
+        return new BatchStepper(new VectorLanes());
+    }
+
+    public void step(List<PendulumChain> chains, double dtTickSeconds) {
+        for (final Bucket bucket : this.buckets) {
+            bucket.clear();
+        }
+        for (final PendulumChain chain : chains) {
+            if (chain.batchable()) {
+                this.bucketFor(chain).add(chain);
+            } else {
+                chain.stepTick(dtTickSeconds);
+            }
+        }
+
+        final int width = VectorLanes.width();
+        for (final Bucket bucket : this.buckets) {
+            final int packed = bucket.size - bucket.size % width;
+            for (int from = 0; from < packed; from += width) {
+                this.lanes.step(bucket.members, from, dtTickSeconds);
+            }
+            for (int i = packed; i < bucket.size; i++) {
+                bucket.members[i].stepTick(dtTickSeconds);
+            }
+        }
+    }
+
+    private Bucket bucketFor(PendulumChain chain) {
+        final int nodeCount = chain.state().nodeCount;
+        final int substeps = chain.effectiveSubsteps();
+        final int iterations = chain.effectiveIterations();
+        for (final Bucket bucket : this.buckets) {
+            if (bucket.nodeCount == nodeCount && bucket.substeps == substeps && bucket.iterations == iterations) {
+                return bucket;
+            }
+        }
+        final Bucket bucket = new Bucket(nodeCount, substeps, iterations);
+        this.buckets.add(bucket);
+        return bucket;
+    }
+
+    private static final class Bucket {
+
+        private final int nodeCount;
+        private final int substeps;
+        private final int iterations;
+        private PendulumChain[] members = new PendulumChain[8];
+        private int size;
+
+        private Bucket(int nodeCount, int substeps, int iterations) {
+            this.nodeCount = nodeCount;
+            this.substeps = substeps;
+            this.iterations = iterations;
+        }
+
+        private void add(PendulumChain chain) {
+            if (this.size == this.members.length) {
+                this.members = Arrays.copyOf(this.members, this.size * 2);
+            }
+            this.members[this.size++] = chain;
+        }
+
+        private void clear() {
+            Arrays.fill(this.members, 0, this.size, null);
+            this.size = 0;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package sh.harold.fulcrum.physics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.bukkit.Color;
+
+// Binary form of one chain's configuration and live state, without its id or anchor. Enums are written by
+// name so reordering them never shifts a save. Item particle overrides are not kept.
+public final class ChainCodec {
+
+    public static final int VERSION = 1;
+
+    private static final int ACTIVE = 1;
+    private static final int ROPE = 1 << 1;
+    private static final int TRACE_TIP = 1 << 2;
+    private static final int SHOW_NODES = 1 << 3;
+    private static final int DISPLAY_ENTITIES = 1 << 4;
+    private static final int ROD_DISPLAYS = 1 << 5;
+    private static final int ADAPTIVE = 1 << 6;
+
+    private ChainCodec() {
+    }
+
+    public static byte[] encode(PendulumChain chain) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int flags = 0;
+            flags |= chain.active() ? ACTIVE : 0;
+            flags |= chain.rope() ? ROPE : 0;
+            flags |= chain.traceTip() ? TRACE_TIP : 0;
+            flags |= chain.showNodes() ? SHOW_NODES : 0;
+            flags |= chain.displayEntities() ? DISPLAY_ENTITIES : 0;
+            flags |= chain.rodDisplays() ? ROD_DISPLAYS : 0;
+            flags |= chain.adaptive() ? ADAPTIVE : 0;
+            out.writeByte(flags);
+            out.writeUTF(chain.particleStyle().name());
+            out.writeUTF(chain.tipTrailStyle().name());
+            out.writeUTF(chain.solverMode().name());
+            out.writeUTF(chain.integratorType().name());
+            out.writeShort(chain.substeps());
+            out.writeShort(chain.minSubsteps());
+            out.writeShort(chain.iterations());
+            out.writeByte(chain.priority());
+            out.writeDouble(chain.drag());
+            out.writeDouble(chain.gravity());
+            out.writeDouble(chain.scale());
+            out.writeFloat(chain.nodeParticleSize());
+            out.writeFloat((float) chain.historySeconds());
+            writeColor(out, chain.rodOverrideColor());
+            writeColor(out, chain.nodeOverrideColor());
+
+            // shape and state together, so a step can't land between the lengths and the positions
+            synchronized (chain.solverLock()) {
+                final ChainState s = chain.state();
+                out.writeShort(s.nodeCount);
+                for (int i = 0; i < s.nodeCount - 1; i++) {
+                    out.writeDouble(s.segmentLength[i]);
+                    out.writeDouble(s.compliance[i]);
+                }
+                for (int i = 0; i < s.nodeCount; i++) {
+                    out.writeDouble(s.mass[i]);
+                    out.writeDouble(s.posX[i]);
+                    out.writeDouble(s.posY[i]);
+                    out.writeDouble(s.prevX[i]);
+                    out.writeDouble(s.prevY[i]);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void decode(byte[] body, int version, PendulumChain chain) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unsupported pendulum record version " + version);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            final int flags = in.readUnsignedByte();
+            final ParticleStyle style = readEnum(in, ParticleStyle.class);
+            final TipTrailStyle tipStyle = readEnum(in, TipTrailStyle.class);
+            final SolverMode solver = readEnum(in, SolverMode.class);
+            final IntegratorType integrator = readEnum(in, IntegratorType.class);
+            final int substeps = in.readShort();
+            final int minSubsteps = in.readShort();
+            final int iterations = in.readShort();
+            final int priority = in.readByte();
+            final double drag = in.readDouble();
+            final double gravity = in.readDouble();
+            final double scale = in.readDouble();
+            final float nodeSize = in.readFloat();
+            final double history = in.readFloat();
+            final Color rodColor = readColor(in);
+            final Color nodeColor = readColor(in);
+
+            final int nodeCount = in.readShort();
+            if (nodeCount < 2) {
+                throw new IOException("Saved pendulum has " + nodeCount + " nodes");
+            }
+            final int segments = nodeCount - 1;
+            final double[] lengths = new double[segments];
+            final double[] compliance = new double[segments];
+            for (int i = 0; i < segments; i++) {
+                lengths[i] = in.readDouble();
+                compliance[i] = in.readDouble();
+            }
+            final double[] mass = new double[nodeCount];
+            final double[] posX = new double[nodeCount];
+            final double[] posY = new double[nodeCount];
+            final double[] prevX = new double[nodeCount];
+            final double[] prevY = new double[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                mass[i] = in.readDouble();
+                posX[i] = in.readDouble();
+                posY[i] = in.readDouble();
+                prevX[i] = in.readDouble();
+                prevY[i] = in.readDouble();
+            }
+
+            if ((flags & ROPE) != 0) {
+                chain.configureRope(segments, lengths[0], mass[segments]);
+            } else {
+                chain.configureSegments(segments);
+            }
+            for (int i = 0; i < segments; i++) {
+                chain.setSegmentLength(i, lengths[i]);
+                chain.setSegmentCompliance(i, compliance[i]);
+            }
+            for (int i = 1; i < nodeCount; i++) {
+                chain.setMass(i, mass[i]);
+            }
+            chain.particleStyle(style);
+            chain.tipTrailStyle(tipStyle);
+            chain.solverMode(solver);
+            chain.integratorType(integrator);
+            chain.substeps(substeps);
+            chain.minSubsteps(minSubsteps);
+            chain.iterations(iterations);
+            chain.adaptive((flags & ADAPTIVE) != 0);
+            chain.priority(priority);
+            chain.drag(drag);
+            chain.gravity(gravity);
+            chain.scale(scale);
+            chain.nodeParticleSize(nodeSize);
+            chain.historySeconds(history);
+            chain.setOverrideColors(rodColor, nodeColor);
+            chain.traceTip((flags & TRACE_TIP) != 0);
+            chain.showNodes((flags & SHOW_NODES) != 0);
+            chain.displayEntities((flags & DISPLAY_ENTITIES) != 0);
+            chain.rodDisplays((flags & ROD_DISPLAYS) != 0);
+            chain.restorePositions(posX, posY, prevX, prevY);
+            chain.active((flags & ACTIVE) != 0);
+        }
+    }
+
+    private static void writeColor(DataOutputStream out, Color color) throws IOException {
+        out.writeBoolean(color != null);
+        if (color != null) {
+            out.writeInt(color.asRGB());
+        }
+    }
+
+    private static Color readColor(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Color.fromRGB(in.readInt()) : null;
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> type) throws IOException {
+        final String name = in.readUTF();
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Unknown " + type.getSimpleName() + " " + name, ex);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package sh.harold.fulcrum.physics;
+
+@FunctionalInterface
+interface ChainIntegrator {
+
+    void advance(double dtTickSeconds);
+}
@@ -0,0 +1,13 @@
+package sh.harold.fulcrum.physics;
+
+public interface ChainListener {
+
+    ChainListener NONE = new ChainListener() {
+    };
+
+    default void anchorMoved(PendulumChain chain) {
+    }
+
+    default void woke(PendulumChain chain) {
+    }
+}
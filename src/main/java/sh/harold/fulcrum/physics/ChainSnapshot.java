@@ -0,0 +1,108 @@
+package sh.harold.fulcrum.physics;
+
+public final class ChainSnapshot {
+
+    private final double[] pathX = new double[TipPath.CAPACITY];
+    private final double[] pathY = new double[TipPath.CAPACITY];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private int nodeCount;
+    private double tipPrevX;
+    private double tipPrevY;
+    private int pathCount;
+    private long sequence;
+
+    ChainSnapshot() {
+    }
+
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    public double x(int index) {
+        return this.x[index];
+    }
+
+    public double y(int index) {
+        return this.y[index];
+    }
+
+    public double tipX() {
+        return this.x[this.nodeCount - 1];
+    }
+
+    public double tipY() {
+        return this.y[this.nodeCount - 1];
+    }
+
+    public double tipPrevX() {
+        return this.tipPrevX;
+    }
+
+    public double tipPrevY() {
+        return this.tipPrevY;
+    }
+
+    // where the tip went since the previous frame, one point per substep
+    public int tipPathCount() {
+        return this.pathCount;
+    }
+
+    public double tipPathX(int index) {
+        return this.pathX[index];
+    }
+
+    public double tipPathY(int index) {
+        return this.pathY[index];
+    }
+
+    // grows with every substep the solver has run since the last pose change
+    long sequence() {
+        return this.sequence;
+    }
+
+    // a replayed frame is written in place: begin, every node, then the tip path points
+    void beginReplayFrame(int count, long sequence) {
+        if (this.nodeCount > 0) {
+            this.tipPrevX = this.x[this.nodeCount - 1];
+            this.tipPrevY = this.y[this.nodeCount - 1];
+        }
+        if (this.x.length != count) {
+            this.x = new double[count];
+            this.y = new double[count];
+        }
+        this.nodeCount = count;
+        this.pathCount = 0;
+        this.sequence = sequence;
+    }
+
+    void replayNode(int index, double nodeX, double nodeY) {
+        this.x[index] = nodeX;
+        this.y[index] = nodeY;
+    }
+
+    void replayPathPoint(double pointX, double pointY) {
+        if (this.pathCount < this.pathX.length) {
+            this.pathX[this.pathCount] = pointX;
+            this.pathY[this.pathCount] = pointY;
+            this.pathCount++;
+        }
+    }
+
+    void copyFrom(ChainState state) {
+        final int count = state.nodeCount;
+        if (this.x.length != count) {
+            this.x = new double[count];
+            this.y = new double[count];
+        }
+        System.arraycopy(state.posX, 0, this.x, 0, count);
+        System.arraycopy(state.posY, 0, this.y, 0, count);
+        this.nodeCount = count;
+        if (count > 0) {
+            this.tipPrevX = state.prevX[count - 1];
+            this.tipPrevY = state.prevY[count - 1];
+        }
+        this.pathCount = state.tipPath.drain(this.pathX, this.pathY);
+        this.sequence = state.tipPath.written;
+    }
+}
@@ -0,0 +1,57 @@
+package sh.harold.fulcrum.physics;
+
+final class ChainState {
+
+    private static final double[] EMPTY = new double[0];
+
+    int nodeCount;
+    int revision;
+    double[] posX = EMPTY;
+    double[] posY = EMPTY;
+    double[] prevX = EMPTY;
+    double[] prevY = EMPTY;
+    double[] mass = EMPTY;
+    double[] invMass = EMPTY;
+    double[] segmentLength = EMPTY;
+    double[] compliance = EMPTY;
+    double[] lambda = EMPTY;
+    final TipPath tipPath = new TipPath();
+
+    void resize(int nodes) {
+        this.revision++;
+        this.nodeCount = nodes;
+        this.posX = new double[nodes];
+        this.posY = new double[nodes];
+        this.prevX = new double[nodes];
+        this.prevY = new double[nodes];
+        this.mass = new double[nodes];
+        this.invMass = new double[nodes];
+        this.segmentLength = new double[Math.max(0, nodes - 1)];
+        this.compliance = new double[Math.max(0, nodes - 1)];
+        this.lambda = new double[Math.max(0, nodes - 1)];
+    }
+
+    void setMass(int index, double value) {
+        this.revision++;
+        if (value <= 0.0) {
+            this.mass[index] = 0.0;
+            this.invMass[index] = 0.0;
+            return;
+        }
+        this.mass[index] = value;
+        this.invMass[index] = 1.0 / value;
+    }
+
+    void recordTip() {
+        if (this.nodeCount > 0) {
+            this.tipPath.append(this.posX[this.nodeCount - 1], this.posY[this.nodeCount - 1]);
+        }
+    }
+
+    void place(int index, double x, double y) {
+        this.posX[index] = x;
+        this.posY[index] = y;
+        this.prevX[index] = x;
+        this.prevY[index] = y;
+    }
+}
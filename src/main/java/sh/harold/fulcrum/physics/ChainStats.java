@@ -0,0 +1,53 @@
+package sh.harold.fulcrum.physics;
+
+public final class ChainStats {
+
+    // ten seconds of ticks
+    private static final int WINDOW = 200;
+
+    private final RollingHistogram step = new RollingHistogram(WINDOW);
+    private final RollingHistogram render = new RollingHistogram(WINDOW);
+    private int particles;
+    private int entityUpdates;
+    private volatile int lastParticles;
+    private volatile int lastEntityUpdates;
+
+    public RollingHistogram step() {
+        return this.step;
+    }
+
+    public RollingHistogram render() {
+        return this.render;
+    }
+
+    public int particlesLastTick() {
+        return this.lastParticles;
+    }
+
+    public int entityUpdatesLastTick() {
+        return this.lastEntityUpdates;
+    }
+
+    void recordStep(long nanos) {
+        this.step.record(nanos);
+    }
+
+    void beginRender() {
+        this.particles = 0;
+        this.entityUpdates = 0;
+    }
+
+    void countParticles(int count) {
+        this.particles += count;
+    }
+
+    void countEntityUpdate() {
+        this.entityUpdates++;
+    }
+
+    void endRender(long nanos) {
+        this.render.record(nanos);
+        this.lastParticles = this.particles;
+        this.lastEntityUpdates = this.entityUpdates;
+    }
+}
@@ -0,0 +1,40 @@
+package sh.harold.fulcrum.physics;
+
+import org.bukkit.Color;
+import org.bukkit.Material;
+
+// block displays can't be tinted, so rod colours snap to the closest concrete
+final class ConcretePalette {
+
+    private static final Material[] BLOCKS = {
+        Material.WHITE_CONCRETE, Material.ORANGE_CONCRETE, Material.MAGENTA_CONCRETE, Material.LIGHT_BLUE_CONCRETE,
+        Material.YELLOW_CONCRETE, Material.LIME_CONCRETE, Material.PINK_CONCRETE, Material.GRAY_CONCRETE,
+        Material.LIGHT_GRAY_CONCRETE, Material.CYAN_CONCRETE, Material.PURPLE_CONCRETE, Material.BLUE_CONCRETE,
+        Material.BROWN_CONCRETE, Material.GREEN_CONCRETE, Material.RED_CONCRETE, Material.BLACK_CONCRETE
+    };
+    private static final int[] RGB = {
+        0xCFD5D6, 0xE06101, 0xA9309F, 0x2489C7,
+        0xF1AF15, 0x5EA918, 0xD5658F, 0x373A3E,
+        0x7D7D73, 0x157788, 0x64209C, 0x2D2F8F,
+        0x603C20, 0x495B24, 0x8E2121, 0x080A0F
+    };
+
+    private ConcretePalette() {
+    }
+
+    static Material nearest(Color color) {
+        Material best = BLOCKS[0];
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < RGB.length; i++) {
+            final int dr = ((RGB[i] >> 16) & 0xFF) - color.getRed();
+            final int dg = ((RGB[i] >> 8) & 0xFF) - color.getGreen();
+            final int db = (RGB[i] & 0xFF) - color.getBlue();
+            final int distance = dr * dr + dg * dg + db * db;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = BLOCKS[i];
+            }
+        }
+        return best;
+    }
+}
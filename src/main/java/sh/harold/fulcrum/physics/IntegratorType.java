@@ -0,0 +1,6 @@
+package sh.harold.fulcrum.physics;
+
+public enum IntegratorType {
+    VERLET,
+    ARTICULATED
+}
@@ -0,0 +1,19 @@
+package sh.harold.fulcrum.physics;
+
+import java.util.List;
+
+public record LodTier(double maxDistance, double rodStep, int nodeParticles, boolean tipTrail, double trailStep) {
+
+    public static final List<LodTier> DEFAULTS = List.of(
+        new LodTier(16.0, 0.15, 3, true, 0.05),
+        new LodTier(32.0, 0.3, 2, true, 0.15),
+        new LodTier(64.0, 0.75, 1, false, 0.5),
+        new LodTier(Double.POSITIVE_INFINITY, 2.0, 1, false, 0.5)
+    );
+
+    public LodTier {
+        rodStep = Math.max(0.05, rodStep);
+        nodeParticles = Math.max(0, nodeParticles);
+        trailStep = Math.max(0.01, trailStep);
+    }
+}
@@ -1,8 +1,11 @@
 package sh.harold.fulcrum.physics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.random.RandomGenerator;
 import org.bukkit.Color;
@@ -10,31 +13,64 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.World;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
+import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.util.Vector;
+import org.joml.Matrix4f;
+import sh.harold.fulcrum.jfr.PhysicsStepEvent;
+import sh.harold.fulcrum.jfr.RenderPassEvent;
 
 public final class PendulumChain {
 
+    public static final int MAX_QUALITY_LEVEL = 3;
+    public static final double MAX_COMPLIANCE = 0.01;
+
     private static final double MIN_LENGTH = 0.5;
+    private static final double MIN_ROPE_LENGTH = 0.05;
+    private static final int MAX_ROPE_SEGMENTS = 512;
+    private static final int MAX_RENDERED_RODS = 48;
     private static final double MAX_LENGTH = 3.0;
     private static final double DEFAULT_LENGTH = 1.0;
     private static final double MIN_MASS = 0.1;
     private static final double MAX_MASS = 25.0;
-    private static final ItemStack COD_PARTICLE = new ItemStack(Material.COD);
-    private static final ItemStack SALMON_PARTICLE = new ItemStack(Material.SALMON);
-    private static final ItemStack CHICKEN_PARTICLE = new ItemStack(Material.CHICKEN);
-    private static final ItemStack COOKED_CHICKEN_PARTICLE = new ItemStack(Material.COOKED_CHICKEN);
+    private static final double VANILLA_PARTICLE_RANGE = 32.0;
+    private static final int DISPLAY_UPDATE_TICKS = 3;
+    private static final float ROD_THICKNESS = 0.1f;
+    private static final double ADAPTIVE_TOLERANCE = 1e-3;
+    private static final double ADAPTIVE_TRAVEL = 0.02;
+    private static final double WARM_START = 0.8;
+    private static final double SLEEP_SPEED = 0.005;
+    private static final double SLEEP_ERROR = 1e-3;
+    private static final int SLEEP_TICKS = 40;
+    private static final int TRAIL_CUTOFF_LEVEL = 2;
+    private static final int MAX_TRAIL_SAMPLES = 32;
+    private static final double MAX_HISTORY_SECONDS = 30.0;
+    private static final int MAX_HISTORY_SAMPLES = 64;
+    private static final int TICKS_PER_SECOND = 20;
 
     private final int id;
     private final Plugin plugin;
-    private final List<PendulumNode> nodes = new ArrayList<>();
+    private final ChainState state = new ChainState();
+    private final Object solverLock = new Object();
+    private final TridiagonalSolver directSolver = new TridiagonalSolver();
+    private final RopeSolver ropeSolver = new RopeSolver();
+    private final ChainStats stats = new ChainStats();
+    private final ChainIntegrator verlet = this::advanceVerlet;
+    private final Runnable asyncStep = this::runAsyncStep;
     private final List<Entity> nodeEntities = new ArrayList<>();
     private final List<List<Entity>> segmentEntities = new ArrayList<>();
-    private double[] segmentLength = new double[0];
+    private final List<BlockDisplay> rodEntities = new ArrayList<>();
+    private final List<Material> rodBlocks = new ArrayList<>();
+    private final List<Player> viewers = new ArrayList<>();
+    private final Location cursor = new Location(null, 0.0, 0.0, 0.0);
+    private final Matrix4f rodMatrix = new Matrix4f();
+    private final TipHistory tipHistory = new TipHistory();
     private ParticleStyle particleStyle = ParticleStyle.WEIGHTED;
     private Location anchor;
     private double scale = 2.0;
@@ -42,15 +78,54 @@ public final class PendulumChain {
     private double drag = 0.01;
     private int iterations = 8;
     private int substeps = 10;
+    private int minSubsteps = 2;
+    private boolean adaptive;
+    private boolean rope;
+    private SolverMode solverMode = SolverMode.GAUSS_SEIDEL;
+    private IntegratorType integratorType = IntegratorType.VERLET;
+    private ChainIntegrator integrator = this.verlet;
+    private double lastDtSub;
+    private int executedSubsteps;
+    private int executedIterations;
     private boolean active;
     private boolean traceTip;
+    private volatile double historySeconds;
     private boolean showNodes = true;
+    private boolean displayEntities = true;
+    private boolean rodDisplays;
+    private Location rodOrigin;
     private float nodeParticleSize = 1.0f;
     private TipTrailStyle tipTrailStyle = TipTrailStyle.END_ROD;
-    private ItemStack itemParticleEven = COD_PARTICLE;
-    private ItemStack itemParticleOdd = SALMON_PARTICLE;
+    private ItemStack itemParticleEven;
+    private ItemStack itemParticleOdd;
     private Color rodOverrideColor;
     private Color nodeOverrideColor;
+    private ChainListener listener = ChainListener.NONE;
+    private volatile ChainSnapshot front = new ChainSnapshot();
+    private ChainSnapshot back = new ChainSnapshot();
+    private volatile boolean stepInFlight;
+    private volatile boolean stepReady;
+    private volatile boolean discardPending;
+    private volatile long asyncLagTicks;
+    private volatile boolean sleeping;
+    private volatile boolean sleepEnabled = true;
+    private int calmTicks;
+    private double asyncDt;
+    private double viewRadius = VANILLA_PARTICLE_RANGE;
+    private int viewerRefreshTicks = 10;
+    private int renderTicks;
+    private List<LodTier> lodTiers = LodTier.DEFAULTS;
+    private int lodIndex;
+    private double nearestViewerDistance = Double.POSITIVE_INFINITY;
+    private int priority;
+    private volatile int qualityLevel;
+    private volatile int particleDemand;
+    private volatile int particleAllowance = Integer.MAX_VALUE;
+    private int particlesLeft;
+    private volatile int renderRevision;
+    private RenderPlan renderPlan;
+    private volatile TrajectoryRecorder recorder;
+    private volatile TrajectoryReplay replay;
 
     public PendulumChain(int id, Location anchor, Plugin plugin) {
         this.id = id;
@@ -68,6 +143,81 @@ public final class PendulumChain {
 
     public void anchor(Location anchor) {
         this.anchor = anchor.clone();
+        this.listener.anchorMoved(this);
+        this.wake();
+    }
+
+    public double viewRadius() {
+        return this.viewRadius;
+    }
+
+    public void viewRange(double radius, int refreshTicks) {
+        this.viewRadius = Math.max(1.0, radius);
+        this.viewerRefreshTicks = Math.max(1, refreshTicks);
+    }
+
+    public void lodTiers(List<LodTier> tiers) {
+        if (tiers == null || tiers.isEmpty()) {
+            this.lodTiers = LodTier.DEFAULTS;
+        } else {
+            final List<LodTier> sorted = new ArrayList<>(tiers);
+            sorted.sort(Comparator.comparingDouble(LodTier::maxDistance));
+            this.lodTiers = List.copyOf(sorted);
+        }
+        this.lodIndex = 0;
+    }
+
+    // each quality level drops one tier further than distance alone would
+    public LodTier lod() {
+        final List<LodTier> tiers = this.lodTiers;
+        return tiers.get(Math.min(tiers.size() - 1, this.lodIndex + this.qualityLevel));
+    }
+
+    public int priority() {
+        return this.priority;
+    }
+
+    public void priority(int priority) {
+        this.priority = priority;
+    }
+
+    public int qualityLevel() {
+        return this.qualityLevel;
+    }
+
+    // a temporary cap from the load governor; the configured substeps and iterations stay the target
+    public void qualityLevel(int level) {
+        this.qualityLevel = (int) clamp(level, 0, MAX_QUALITY_LEVEL);
+    }
+
+    // particles the last frame wanted at full detail, before any allowance was applied
+    public int particleDemand() {
+        return this.particleDemand;
+    }
+
+    public int particleAllowance() {
+        return this.particleAllowance;
+    }
+
+    public void particleAllowance(int allowance) {
+        this.particleAllowance = Math.max(0, allowance);
+    }
+
+    public int effectiveSubsteps() {
+        final int level = this.qualityLevel;
+        return level == 0 ? this.substeps : Math.max(Math.min(2, this.substeps), this.substeps >> level);
+    }
+
+    public int effectiveIterations() {
+        return Math.max(1, this.iterations >> this.qualityLevel);
+    }
+
+    public double nearestViewerDistance() {
+        return this.nearestViewerDistance;
+    }
+
+    public void listener(ChainListener listener) {
+        this.listener = listener == null ? ChainListener.NONE : listener;
     }
 
     public boolean active() {
@@ -76,6 +226,90 @@ public final class PendulumChain {
 
     public void active(boolean active) {
         this.active = active;
+        this.wake();
+    }
+
+    public ChainStats stats() {
+        return this.stats;
+    }
+
+    public boolean sleeping() {
+        return this.sleeping;
+    }
+
+    public boolean sleepEnabled() {
+        return this.sleepEnabled;
+    }
+
+    // benchmarks turn this off so a settled chain keeps exercising the solver
+    public void sleepEnabled(boolean sleepEnabled) {
+        this.sleepEnabled = sleepEnabled;
+        this.wake();
+    }
+
+    // nothing to simulate: stopped, unconfigured, settled or replaying a recording
+    public boolean resting() {
+        return !this.active || this.sleeping || !this.configured() || this.replay != null;
+    }
+
+    // recording or replaying needs a frame every tick even while the physics rests
+    public boolean tapeRunning() {
+        return this.recorder != null || this.replay != null;
+    }
+
+    public TrajectoryRecorder recorder() {
+        return this.recorder;
+    }
+
+    // the caller closes the recorder it swaps out
+    public void recorder(TrajectoryRecorder recorder) {
+        this.recorder = recorder;
+        this.wake();
+    }
+
+    public TrajectoryReplay replay() {
+        return this.replay;
+    }
+
+    // takes on the recording's shape so the render plan matches its frames; null hands back to the solver
+    public void replay(TrajectoryReplay replay) {
+        if (replay != null) {
+            final int segments = replay.nodeCount() - 1;
+            if (replay.rope()) {
+                // rope links sit below the rigid minimum length, and ropes skip the per-node entity pools
+                this.configureRope(segments, replay.segmentLength(0), replay.mass(1));
+            } else if (!this.configured() || this.rope || this.state.nodeCount != replay.nodeCount()) {
+                this.configureSegments(segments);
+            }
+            for (int i = 0; i < segments; i++) {
+                this.setSegmentLength(i, replay.segmentLength(i));
+                this.setMass(i + 1, replay.mass(i + 1));
+            }
+        }
+        this.replay = replay;
+        this.wake();
+    }
+
+    public void wake() {
+        this.calmTicks = 0;
+        this.sleeping = false;
+        this.listener.woke(this);
+    }
+
+    public void applyImpulse(int nodeIndex, double impulseX, double impulseY) {
+        ensureNodeIndex(nodeIndex);
+        synchronized (this.solverLock) {
+            final ChainState s = this.state;
+            if (s.invMass[nodeIndex] == 0.0) {
+                return;
+            }
+            // verlet velocity lives in pos - prev, so an impulse moves prev back along it
+            final double dtSub = this.lastDtSub > 0.0 ? this.lastDtSub : 0.05 / this.substeps;
+            s.prevX[nodeIndex] -= impulseX * s.invMass[nodeIndex] * dtSub;
+            s.prevY[nodeIndex] -= impulseY * s.invMass[nodeIndex] * dtSub;
+            s.revision++;
+        }
+        this.wake();
     }
 
     public int substeps() {
@@ -84,6 +318,60 @@ public final class PendulumChain {
 
     public void substeps(int substeps) {
         this.substeps = Math.max(1, substeps);
+        this.wake();
+    }
+
+    public int minSubsteps() {
+        return this.minSubsteps;
+    }
+
+    public void minSubsteps(int minSubsteps) {
+        this.minSubsteps = Math.max(1, minSubsteps);
+        this.wake();
+    }
+
+    public boolean adaptive() {
+        return this.adaptive;
+    }
+
+    public void adaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        this.wake();
+    }
+
+    public SolverMode solverMode() {
+        return this.solverMode;
+    }
+
+    public void solverMode(SolverMode mode) {
+        Objects.requireNonNull(mode, "mode");
+        synchronized (this.solverLock) {
+            this.solverMode = mode;
+            Arrays.fill(this.state.lambda, 0.0);
+        }
+        this.wake();
+    }
+
+    public IntegratorType integratorType() {
+        return this.integratorType;
+    }
+
+    public void integratorType(IntegratorType type) {
+        Objects.requireNonNull(type, "type");
+        synchronized (this.solverLock) {
+            this.integratorType = type;
+            // a fresh engine re-reads joint angles and rates from the current positions
+            this.integrator = type == IntegratorType.ARTICULATED ? new ArticulatedBodyIntegrator(this) : this.verlet;
+        }
+        this.wake();
+    }
+
+    public int executedSubsteps() {
+        return this.executedSubsteps;
+    }
+
+    public int executedIterations() {
+        return this.executedIterations;
     }
 
     public int iterations() {
@@ -92,6 +380,7 @@ public final class PendulumChain {
 
     public void iterations(int iterations) {
         this.iterations = Math.max(1, iterations);
+        this.wake();
     }
 
     public double drag() {
@@ -100,6 +389,7 @@ public final class PendulumChain {
 
     public void drag(double drag) {
         this.drag = Math.max(0.0, drag);
+        this.wake();
     }
 
     public double gravity() {
@@ -108,6 +398,7 @@ public final class PendulumChain {
 
     public void gravity(double gravity) {
         this.gravity = gravity;
+        this.wake();
     }
 
     public double scale() {
@@ -116,35 +407,61 @@ public final class PendulumChain {
 
     public void scale(double scale) {
         this.scale = Math.max(0.1, scale);
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
     public int segmentCount() {
-        return this.segmentLength.length;
+        return this.state.segmentLength.length;
     }
 
     public double segmentLength(int index) {
-        return this.segmentLength[index];
+        return this.state.segmentLength[index];
     }
 
     public void setSegmentLength(int index, double length) {
         ensureIndex(index);
-        this.segmentLength[index] = clamp(length, MIN_LENGTH, MAX_LENGTH);
+        synchronized (this.solverLock) {
+            this.state.segmentLength[index] = clamp(length, this.rope ? MIN_ROPE_LENGTH : MIN_LENGTH, MAX_LENGTH);
+            this.state.revision++;
+        }
+        this.invalidateRenderPlan();
+        this.wake();
+    }
+
+    public double segmentCompliance(int index) {
+        return this.state.compliance[index];
+    }
+
+    public void setSegmentCompliance(int index, double compliance) {
+        ensureIndex(index);
+        synchronized (this.solverLock) {
+            this.state.compliance[index] = clamp(compliance, 0.0, MAX_COMPLIANCE);
+        }
+        this.wake();
     }
 
     public double[] segmentLengths() {
-        return this.segmentLength.clone();
+        return this.state.segmentLength.clone();
     }
 
     public List<PendulumNode> nodes() {
-        return List.copyOf(this.nodes);
+        final List<PendulumNode> view = new ArrayList<>(this.state.nodeCount);
+        for (int i = 0; i < this.state.nodeCount; i++) {
+            view.add(this.node(i));
+        }
+        return List.copyOf(view);
     }
 
     public PendulumNode node(int index) {
-        return this.nodes.get(index);
+        ensureNodeIndex(index);
+        final ChainState s = this.state;
+        return new PendulumNode(new Vec2(s.posX[index], s.posY[index]), new Vec2(s.prevX[index], s.prevY[index]), s.mass[index]);
     }
 
     public double massAt(int nodeIndex) {
-        return this.nodes.get(nodeIndex).mass();
+        ensureNodeIndex(nodeIndex);
+        return this.state.mass[nodeIndex];
     }
 
     public ParticleStyle particleStyle() {
@@ -153,19 +470,21 @@ public final class PendulumChain {
 
     public void particleStyle(ParticleStyle style) {
         this.particleStyle = style;
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
     public void setMass(int nodeIndex, double mass) {
         ensureNodeIndex(nodeIndex);
-        if (nodeIndex == 0) {
-            this.nodes.get(nodeIndex).setMass(0.0);
-            return;
+        synchronized (this.solverLock) {
+            this.state.setMass(nodeIndex, nodeIndex == 0 ? 0.0 : clamp(mass, MIN_MASS, MAX_MASS));
         }
-        this.nodes.get(nodeIndex).setMass(clamp(mass, MIN_MASS, MAX_MASS));
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
     public boolean configured() {
-        return !this.nodes.isEmpty() && this.segmentLength.length == this.nodes.size() - 1;
+        return this.state.nodeCount > 1 && this.state.segmentLength.length == this.state.nodeCount - 1;
     }
 
     public boolean traceTip() {
@@ -174,6 +493,17 @@ public final class PendulumChain {
 
     public void traceTip(boolean traceTip) {
         this.traceTip = traceTip;
+        this.wake();
+    }
+
+    public double historySeconds() {
+        return this.historySeconds;
+    }
+
+    // long-exposure trail length; 0 turns it off
+    public void historySeconds(double seconds) {
+        this.historySeconds = clamp(seconds, 0.0, MAX_HISTORY_SECONDS);
+        this.wake();
     }
 
     public boolean showNodes() {
@@ -182,6 +512,28 @@ public final class PendulumChain {
 
     public void showNodes(boolean showNodes) {
         this.showNodes = showNodes;
+        this.wake();
+    }
+
+    public boolean displayEntities() {
+        return this.displayEntities;
+    }
+
+    public void displayEntities(boolean displayEntities) {
+        if (this.displayEntities != displayEntities) {
+            clearEntityPools();
+        }
+        this.displayEntities = displayEntities;
+        this.wake();
+    }
+
+    public boolean rodDisplays() {
+        return this.rodDisplays;
+    }
+
+    public void rodDisplays(boolean rodDisplays) {
+        this.rodDisplays = rodDisplays;
+        this.wake();
     }
 
     public float nodeParticleSize() {
@@ -190,6 +542,8 @@ public final class PendulumChain {
 
     public void nodeParticleSize(float size) {
         this.nodeParticleSize = Math.max(0.2f, Math.min(2.5f, size));
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
     public TipTrailStyle tipTrailStyle() {
@@ -198,66 +552,122 @@ public final class PendulumChain {
 
     public void tipTrailStyle(TipTrailStyle style) {
         this.tipTrailStyle = style;
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
     public void setItemParticles(ItemStack even, ItemStack odd) {
-        this.itemParticleEven = even == null ? COD_PARTICLE : even.clone();
-        this.itemParticleOdd = odd == null ? SALMON_PARTICLE : odd.clone();
+        // pooled item displays keep the stack they spawned with, so drop them and let the next frame respawn
+        if (this.displayEntities && (!Objects.equals(this.itemParticleEven, even) || !Objects.equals(this.itemParticleOdd, odd))) {
+            clearEntityPools();
+        }
+        this.itemParticleEven = even == null ? null : even.clone();
+        this.itemParticleOdd = odd == null ? null : odd.clone();
+        this.wake();
+    }
+
+    public Color rodOverrideColor() {
+        return this.rodOverrideColor;
+    }
+
+    public Color nodeOverrideColor() {
+        return this.nodeOverrideColor;
     }
 
     public void setOverrideColors(Color rodColor, Color nodeColor) {
         this.rodOverrideColor = rodColor;
         this.nodeOverrideColor = nodeColor;
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
-    public void configureSegments(int segments) {
-        final int targetSegments = Math.max(1, segments);
-        final double[] previousLengths = this.segmentLength;
-        final List<PendulumNode> previousNodes = List.copyOf(this.nodes);
+    public boolean rope() {
+        return this.rope;
+    }
 
-        this.segmentLength = new double[targetSegments];
+    public void configureRope(int segments, double linkLength, double linkMass) {
         cleanupEntities();
-        this.nodes.clear();
-        for (int i = 0; i <= targetSegments; i++) {
-            final double inheritedMass;
-            if (i < previousNodes.size()) {
-                inheritedMass = previousNodes.get(i).mass();
-            } else if (i == 0) {
-                inheritedMass = 0.0;
-            } else if (i == targetSegments) {
-                inheritedMass = 2.0;
-            } else {
-                inheritedMass = 1.0;
+        synchronized (this.solverLock) {
+            final int targetSegments = Math.max(1, Math.min(MAX_ROPE_SEGMENTS, segments));
+            this.rope = true;
+            this.state.resize(targetSegments + 1);
+            for (int i = 0; i <= targetSegments; i++) {
+                this.state.setMass(i, i == 0 ? 0.0 : clamp(linkMass, MIN_MASS, MAX_MASS));
             }
-            this.nodes.add(new PendulumNode(Vec2.ZERO, Vec2.ZERO, inheritedMass));
+            Arrays.fill(this.state.segmentLength, clamp(linkLength, MIN_ROPE_LENGTH, MAX_LENGTH));
+            this.resetPose(PoseType.DOWN, ThreadLocalRandom.current());
         }
+        this.invalidateRenderPlan();
+        this.wake();
+    }
 
-        for (int i = 0; i < targetSegments; i++) {
-            final double candidate = i < previousLengths.length ? previousLengths[i] : DEFAULT_LENGTH;
-            this.segmentLength[i] = clamp(candidate, MIN_LENGTH, MAX_LENGTH);
-        }
+    public void configureSegments(int segments) {
+        cleanupEntities();
+        synchronized (this.solverLock) {
+            this.rope = false;
+            final int targetSegments = Math.max(1, segments);
+            final double[] previousLengths = this.state.segmentLength;
+            final double[] previousMasses = this.state.mass;
+            final double[] previousCompliance = this.state.compliance;
+
+            this.state.resize(targetSegments + 1);
+            for (int i = 0; i <= targetSegments; i++) {
+                final double inheritedMass;
+                if (i < previousMasses.length) {
+                    inheritedMass = previousMasses[i];
+                } else if (i == 0) {
+                    inheritedMass = 0.0;
+                } else if (i == targetSegments) {
+                    inheritedMass = 2.0;
+                } else {
+                    inheritedMass = 1.0;
+                }
+                this.state.setMass(i, inheritedMass);
+            }
+
+            for (int i = 0; i < targetSegments; i++) {
+                final double candidate = i < previousLengths.length ? previousLengths[i] : DEFAULT_LENGTH;
+                this.state.segmentLength[i] = clamp(candidate, MIN_LENGTH, MAX_LENGTH);
+                this.state.compliance[i] = i < previousCompliance.length ? previousCompliance[i] : 0.0;
+            }
 
-        this.resetPose(PoseType.DOWN, ThreadLocalRandom.current());
+            this.resetPose(PoseType.DOWN, ThreadLocalRandom.current());
+        }
+        this.invalidateRenderPlan();
+        this.wake();
     }
 
     public void resetPose(PoseType poseType, RandomGenerator rng) {
         if (!this.configured()) {
             return;
         }
+        synchronized (this.solverLock) {
+            this.placePose(poseType, rng);
+            this.publish();
+        }
+        this.wake();
+    }
 
-        final List<Vec2> positions = new ArrayList<>(this.nodes.size());
-        positions.add(Vec2.ZERO);
+    private void placePose(PoseType poseType, RandomGenerator rng) {
 
-        Vec2 direction = switch (poseType) {
-            case DOWN -> new Vec2(0.0, -1.0);
-            case UP -> new Vec2(0.0, 1.0);
-            case LEFT -> new Vec2(-1.0, 0.0);
-            case RIGHT -> new Vec2(1.0, 0.0);
-            case RANDOMIZED -> Vec2.ZERO;
+        final ChainState s = this.state;
+        double dirX = switch (poseType) {
+            case LEFT -> -1.0;
+            case RIGHT -> 1.0;
+            default -> 0.0;
+        };
+        double dirY = switch (poseType) {
+            case DOWN -> -1.0;
+            case UP -> 1.0;
+            default -> 0.0;
         };
 
+        final double jiggle = poseType == PoseType.RANDOMIZED ? 0.02 : 0.0;
         double cumulativeAngle = -Math.PI / 2.0;
-        for (int i = 0; i < this.segmentLength.length; i++) {
+        double x = 0.0;
+        double y = 0.0;
+        s.place(0, x, y);
+        for (int i = 0; i < s.segmentLength.length; i++) {
             if (poseType == PoseType.RANDOMIZED) {
                 if (i == 0) {
                     cumulativeAngle = rng.nextDouble(0.0, Math.PI * 2.0);
@@ -265,255 +675,817 @@ public final class PendulumChain {
                     final double perturb = rng.nextDouble(-Math.PI, Math.PI);
                     cumulativeAngle += perturb * 0.5;
                 }
-                direction = new Vec2(Math.cos(cumulativeAngle), Math.sin(cumulativeAngle));
+                dirX = Math.cos(cumulativeAngle);
+                dirY = Math.sin(cumulativeAngle);
             }
-            final Vec2 last = positions.get(i);
-            final Vec2 offset = direction.multiply(this.segmentLength[i]);
-            positions.add(last.add(offset));
+            x += dirX * s.segmentLength[i];
+            y += dirY * s.segmentLength[i];
+            s.place(i + 1, x, y);
         }
 
-        final double jiggle = poseType == PoseType.RANDOMIZED ? 0.02 : 0.0;
-        for (int i = 0; i < this.nodes.size(); i++) {
-            final Vec2 pos = positions.get(i);
-            final Vec2 jitter = jiggle > 0.0
-                ? new Vec2(rng.nextDouble(-jiggle, jiggle), rng.nextDouble(-jiggle, jiggle))
-                : Vec2.ZERO;
-            final Vec2 withJitter = pos.add(jitter);
-            final PendulumNode node = this.nodes.get(i);
-            node.pos(withJitter);
-            node.prevPos(withJitter);
+        if (jiggle > 0.0) {
+            for (int i = 0; i < s.nodeCount; i++) {
+                s.place(i, s.posX[i] + rng.nextDouble(-jiggle, jiggle), s.posY[i] + rng.nextDouble(-jiggle, jiggle));
+            }
         }
     }
 
     public void setPoseAngles(double... angles) {
-        if (angles.length != this.segmentLength.length) {
-            throw new IllegalArgumentException("Expected " + this.segmentLength.length + " angles, got " + angles.length);
+        if (angles.length != this.state.segmentLength.length) {
+            throw new IllegalArgumentException("Expected " + this.state.segmentLength.length + " angles, got " + angles.length);
+        }
+        synchronized (this.solverLock) {
+            this.placeAngles(angles);
+            this.publish();
         }
-        final List<Vec2> positions = new ArrayList<>();
-        positions.add(Vec2.ZERO);
+        this.wake();
+    }
+
+    private void placeAngles(double[] angles) {
+        final ChainState s = this.state;
+        double x = 0.0;
+        double y = 0.0;
+        s.place(0, x, y);
         for (int i = 0; i < angles.length; i++) {
             final double theta = angles[i];
-            final double dx = Math.sin(theta) * this.segmentLength[i];
-            final double dy = -Math.cos(theta) * this.segmentLength[i];
-            final Vec2 next = positions.get(i).add(new Vec2(dx, dy));
-            positions.add(next);
+            x += Math.sin(theta) * s.segmentLength[i];
+            y += -Math.cos(theta) * s.segmentLength[i];
+            s.place(i + 1, x, y);
         }
-        applyPositions(positions);
     }
 
-    private void applyPositions(List<Vec2> positions) {
-        if (positions.size() != this.nodes.size()) {
-            throw new IllegalArgumentException("Positions size mismatch");
-        }
-        for (int i = 0; i < positions.size(); i++) {
-            final Vec2 pos = positions.get(i);
-            final PendulumNode node = this.nodes.get(i);
-            node.pos(pos);
-            node.prevPos(pos);
+    // puts back a saved mid-swing state; the arrays must match the configured node count
+    void restorePositions(double[] posX, double[] posY, double[] prevX, double[] prevY) {
+        synchronized (this.solverLock) {
+            final ChainState s = this.state;
+            final int count = Math.min(s.nodeCount, posX.length);
+            System.arraycopy(posX, 0, s.posX, 0, count);
+            System.arraycopy(posY, 0, s.posY, 0, count);
+            System.arraycopy(prevX, 0, s.prevX, 0, count);
+            System.arraycopy(prevY, 0, s.prevY, 0, count);
+            this.publish();
         }
+        this.wake();
+    }
+
+    public ChainSnapshot snapshot() {
+        return this.front;
+    }
+
+    public long asyncLagTicks() {
+        return this.asyncLagTicks;
     }
 
     public void stepTick(double dtTickSeconds) {
-        if (!this.active || !this.configured()) {
+        if (this.resting()) {
+            return;
+        }
+        final PhysicsStepEvent event = new PhysicsStepEvent();
+        event.begin();
+        final long started = System.nanoTime();
+        synchronized (this.solverLock) {
+            this.advance(dtTickSeconds);
+            this.publishStep();
+        }
+        this.stats.recordStep(System.nanoTime() - started);
+        event.complete(this.id, this.segmentCount(), this.executedSubsteps, this.executedIterations, 1, false);
+    }
+
+    public void stepAsync(Executor executor, double dtTickSeconds) {
+        if (this.stepInFlight) {
+            this.asyncLagTicks++;
             return;
         }
-        final double dtSub = dtTickSeconds / this.substeps;
-        for (int sub = 0; sub < this.substeps; sub++) {
-            integrate(dtSub);
-            for (int i = 0; i < this.iterations; i++) {
-                satisfyConstraints();
+        if (this.stepReady) {
+            this.stepReady = false;
+            synchronized (this.solverLock) {
+                if (this.discardPending) {
+                    this.discardPending = false;
+                } else {
+                    this.swapSnapshots();
+                }
+            }
+        }
+        if (this.resting()) {
+            return;
+        }
+        this.asyncDt = dtTickSeconds;
+        this.stepInFlight = true;
+        executor.execute(this.asyncStep);
+    }
+
+    private void runAsyncStep() {
+        try {
+            final PhysicsStepEvent event = new PhysicsStepEvent();
+            event.begin();
+            final long started = System.nanoTime();
+            synchronized (this.solverLock) {
+                this.discardPending = false;
+                this.advance(this.asyncDt);
+                this.detectSleep();
+                this.back.copyFrom(this.state);
             }
-            applyDrag(dtSub);
+            this.stats.recordStep(System.nanoTime() - started);
+            event.complete(this.id, this.segmentCount(), this.executedSubsteps, this.executedIterations, 1, true);
+            this.stepReady = true;
+        } finally {
+            this.stepInFlight = false;
+        }
+    }
+
+    private void swapSnapshots() {
+        final ChainSnapshot published = this.back;
+        this.back = this.front;
+        this.front = published;
+    }
+
+    private void publish() {
+        final ChainState s = this.state;
+        if (s.nodeCount > 0) {
+            s.tipPath.restart(s.posX[s.nodeCount - 1], s.posY[s.nodeCount - 1]);
         }
+        final ChainSnapshot fresh = new ChainSnapshot();
+        fresh.copyFrom(this.state);
+        Arrays.fill(this.state.lambda, 0.0);
+        this.state.revision++;
+        this.front = fresh;
+        this.discardPending = true;
+    }
+
+    ChainState state() {
+        return this.state;
     }
 
-    private void integrate(double dtSub) {
-        final Vec2 acceleration = new Vec2(0.0, -this.gravity);
-        for (final PendulumNode node : this.nodes) {
-            if (node.invMass() == 0.0) {
+    Object solverLock() {
+        return this.solverLock;
+    }
+
+    boolean batchable() {
+        return !this.resting() && !this.adaptive && !this.rope && this.solverMode == SolverMode.GAUSS_SEIDEL
+            && this.integratorType == IntegratorType.VERLET;
+    }
+
+    void publishStep() {
+        this.detectSleep();
+        this.back.copyFrom(this.state);
+        this.swapSnapshots();
+    }
+
+    private void detectSleep() {
+        final ChainState s = this.state;
+        final double dtSub = this.lastDtSub;
+        if (dtSub <= 0.0 || !this.sleepEnabled) {
+            return;
+        }
+        double kinetic = 0.0;
+        double totalMass = 0.0;
+        for (int i = 1; i < s.nodeCount; i++) {
+            final double vx = (s.posX[i] - s.prevX[i]) / dtSub;
+            final double vy = (s.posY[i] - s.prevY[i]) / dtSub;
+            kinetic += 0.5 * s.mass[i] * (vx * vx + vy * vy);
+            totalMass += s.mass[i];
+        }
+        double error = 0.0;
+        // compliant rods and long ropes rest stretched, so only rigid chains are held to their lengths
+        if (!this.rope && this.solverMode != SolverMode.XPBD) {
+            for (int i = 0; i < s.nodeCount - 1; i++) {
+                final double dist = Math.hypot(s.posX[i + 1] - s.posX[i], s.posY[i + 1] - s.posY[i]);
+                error = Math.max(error, Math.abs(dist - s.segmentLength[i]));
+            }
+        }
+        if (kinetic > 0.5 * totalMass * SLEEP_SPEED * SLEEP_SPEED || error > SLEEP_ERROR) {
+            this.calmTicks = 0;
+            return;
+        }
+        if (++this.calmTicks < SLEEP_TICKS) {
+            return;
+        }
+        for (int i = 0; i < s.nodeCount; i++) {
+            s.prevX[i] = s.posX[i];
+            s.prevY[i] = s.posY[i];
+        }
+        s.revision++;
+        this.sleeping = true;
+    }
+
+    double lastDtSub() {
+        return this.lastDtSub;
+    }
+
+    void recordStep(int substeps, int iterations, double dtSub) {
+        this.executedSubsteps = substeps;
+        this.executedIterations = iterations;
+        this.lastDtSub = dtSub;
+    }
+
+    private void advance(double dtTickSeconds) {
+        this.integrator.advance(dtTickSeconds);
+    }
+
+    private void advanceVerlet(double dtTickSeconds) {
+        if (this.adaptive) {
+            advanceAdaptive(dtTickSeconds);
+            return;
+        }
+        final int substeps = this.effectiveSubsteps();
+        final int iterations = this.effectiveIterations();
+        final double dtSub = dtTickSeconds / substeps;
+        this.matchSubstep(dtSub);
+        final double gravityStep = -this.gravity * dtSub * dtSub;
+        final double dragFactor = Math.max(0.0, 1.0 - this.drag * dtSub);
+        for (int sub = 0; sub < substeps; sub++) {
+            integrate(gravityStep);
+            warmStart();
+            for (int i = 0; i < iterations; i++) {
+                project(dtSub);
+            }
+            applyDrag(dragFactor);
+            this.state.recordTip();
+        }
+        this.recordStep(substeps, substeps * iterations, dtSub);
+    }
+
+    private void advanceAdaptive(double dtTickSeconds) {
+        final ChainState s = this.state;
+        final int tip = s.nodeCount - 1;
+        final double tipTravel = Math.hypot(s.posX[tip] - s.prevX[tip], s.posY[tip] - s.prevY[tip]);
+        // pos - prev only covers the last substep, so stretch it to a whole tick before picking a count
+        final double tickTravel = this.lastDtSub > 0.0 ? tipTravel * dtTickSeconds / this.lastDtSub : 0.0;
+        final int maxSubsteps = this.effectiveSubsteps();
+        final int iterations = this.effectiveIterations();
+        final int substeps = (int) clamp(Math.ceil(tickTravel / ADAPTIVE_TRAVEL), Math.min(this.minSubsteps, maxSubsteps), maxSubsteps);
+        final double dtSub = dtTickSeconds / substeps;
+        this.matchSubstep(dtSub);
+
+        final double gravityStep = -this.gravity * dtSub * dtSub;
+        final double dragFactor = Math.max(0.0, 1.0 - this.drag * dtSub);
+        int iterationsRun = 0;
+        for (int sub = 0; sub < substeps; sub++) {
+            integrate(gravityStep);
+            warmStart();
+            for (int i = 0; i < iterations; i++) {
+                iterationsRun++;
+                if (project(dtSub) < ADAPTIVE_TOLERANCE) {
+                    break;
+                }
+            }
+            applyDrag(dragFactor);
+            this.state.recordTip();
+        }
+        this.recordStep(substeps, iterationsRun, dtSub);
+    }
+
+    // verlet keeps velocity as pos - prev per substep, so a new substep length has to stretch that gap with it
+    void matchSubstep(double dtSub) {
+        if (this.lastDtSub > 0.0 && dtSub != this.lastDtSub) {
+            rescaleVelocity(dtSub / this.lastDtSub);
+        }
+    }
+
+    private void rescaleVelocity(double ratio) {
+        final ChainState s = this.state;
+        for (int i = 1; i < s.nodeCount; i++) {
+            s.prevX[i] = s.posX[i] - (s.posX[i] - s.prevX[i]) * ratio;
+            s.prevY[i] = s.posY[i] - (s.posY[i] - s.prevY[i]) * ratio;
+        }
+        // xpbd multipliers carry a dt^2 factor
+        for (int i = 0; i < s.lambda.length; i++) {
+            s.lambda[i] *= ratio * ratio;
+        }
+    }
+
+    private void integrate(double gravityStep) {
+        final ChainState s = this.state;
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] prevX = s.prevX;
+        final double[] prevY = s.prevY;
+        final double[] invMass = s.invMass;
+        for (int i = 0; i < s.nodeCount; i++) {
+            if (invMass[i] == 0.0) {
+                continue;
+            }
+            final double x = posX[i];
+            final double y = posY[i];
+            posX[i] = x + (x - prevX[i]);
+            posY[i] = y + (y - prevY[i]) + gravityStep;
+            prevX[i] = x;
+            prevY[i] = y;
+        }
+    }
+
+    private double project(double dtSub) {
+        if (this.rope) {
+            return this.ropeSolver.solve(this.state);
+        }
+        return switch (this.solverMode) {
+            case GAUSS_SEIDEL -> satisfyConstraints();
+            case DIRECT -> this.directSolver.solve(this.state);
+            case XPBD -> satisfyCompliant(1.0 / (dtSub * dtSub));
+        };
+    }
+
+    // re-apply a damped share of last substep's multipliers so the iterations start near the answer
+    private void warmStart() {
+        if (this.solverMode != SolverMode.XPBD) {
+            return;
+        }
+        final ChainState s = this.state;
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] invMass = s.invMass;
+        final double[] lambda = s.lambda;
+        for (int i = 0; i < s.nodeCount - 1; i++) {
+            final int j = i + 1;
+            lambda[i] *= WARM_START;
+            final double dx = posX[j] - posX[i];
+            final double dy = posY[j] - posY[i];
+            final double dist = Math.sqrt(dx * dx + dy * dy);
+            if (dist < 1e-9 || lambda[i] == 0.0) {
                 continue;
             }
-            final Vec2 velocity = node.pos().subtract(node.prevPos());
-            final Vec2 posNext = node.pos()
-                .add(velocity)
-                .add(acceleration.multiply(dtSub * dtSub));
-            node.prevPos(node.pos());
-            node.pos(posNext);
+            final double lx = dx / dist * lambda[i];
+            final double ly = dy / dist * lambda[i];
+            posX[i] -= invMass[i] * lx;
+            posY[i] -= invMass[i] * ly;
+            posX[j] += invMass[j] * lx;
+            posY[j] += invMass[j] * ly;
         }
     }
 
-    private void satisfyConstraints() {
-        for (int i = 0; i < this.nodes.size() - 1; i++) {
-            final PendulumNode a = this.nodes.get(i);
-            final PendulumNode b = this.nodes.get(i + 1);
+    private double satisfyCompliant(double inverseDtSquared) {
+        final ChainState s = this.state;
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] invMass = s.invMass;
+        final double[] segmentLength = s.segmentLength;
+        final double[] compliance = s.compliance;
+        final double[] lambda = s.lambda;
+        double maxError = 0.0;
+        for (int i = 0; i < s.nodeCount - 1; i++) {
+            final int j = i + 1;
+            final double dx = posX[j] - posX[i];
+            final double dy = posY[j] - posY[i];
+            final double dist = Math.sqrt(dx * dx + dy * dy);
+            if (dist < 1e-9) {
+                continue;
+            }
 
-            final Vec2 delta = b.pos().subtract(a.pos());
-            final double dist = delta.length();
+            final double w1 = invMass[i];
+            final double w2 = invMass[j];
+            final double alpha = compliance[i] * inverseDtSquared;
+            final double denominator = w1 + w2 + alpha;
+            if (denominator == 0.0) {
+                continue;
+            }
+
+            final double error = dist - segmentLength[i];
+            final double deltaLambda = (-error - alpha * lambda[i]) / denominator;
+            maxError = Math.max(maxError, Math.abs(error + alpha * lambda[i]));
+            lambda[i] += deltaLambda;
+            final double cx = dx / dist * deltaLambda;
+            final double cy = dy / dist * deltaLambda;
+            posX[i] -= cx * w1;
+            posY[i] -= cy * w1;
+            posX[j] += cx * w2;
+            posY[j] += cy * w2;
+        }
+        return maxError;
+    }
+
+    private double satisfyConstraints() {
+        final ChainState s = this.state;
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] invMass = s.invMass;
+        final double[] segmentLength = s.segmentLength;
+        double maxError = 0.0;
+        for (int i = 0; i < s.nodeCount - 1; i++) {
+            final int j = i + 1;
+            final double dx = posX[j] - posX[i];
+            final double dy = posY[j] - posY[i];
+            final double dist = Math.sqrt(dx * dx + dy * dy);
             if (dist < 1e-9) {
                 continue;
             }
 
-            final double w1 = a.invMass();
-            final double w2 = b.invMass();
+            final double w1 = invMass[i];
+            final double w2 = invMass[j];
             final double wSum = w1 + w2;
             if (wSum == 0.0) {
                 continue;
             }
 
-            final double target = this.segmentLength[i];
-            final double diff = dist - target;
-            final Vec2 n = delta.multiply(1.0 / dist);
-            final Vec2 correction = n.multiply(diff);
-
-            a.pos(a.pos().add(correction.multiply(w1 / wSum)));
-            b.pos(b.pos().subtract(correction.multiply(w2 / wSum)));
+            final double error = dist - segmentLength[i];
+            maxError = Math.max(maxError, Math.abs(error));
+            final double k = error / (dist * wSum);
+            final double cx = dx * k;
+            final double cy = dy * k;
+            posX[i] += cx * w1;
+            posY[i] += cy * w1;
+            posX[j] -= cx * w2;
+            posY[j] -= cy * w2;
         }
+        return maxError;
     }
 
-    private void applyDrag(double dtSub) {
-        final double factor = Math.max(0.0, 1.0 - this.drag * dtSub);
-        for (int i = 1; i < this.nodes.size(); i++) {
-            final PendulumNode node = this.nodes.get(i);
-            final Vec2 velocity = node.pos().subtract(node.prevPos()).multiply(factor);
-            node.prevPos(node.pos().subtract(velocity));
+    private void applyDrag(double factor) {
+        final ChainState s = this.state;
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] prevX = s.prevX;
+        final double[] prevY = s.prevY;
+        for (int i = 1; i < s.nodeCount; i++) {
+            prevX[i] = posX[i] - (posX[i] - prevX[i]) * factor;
+            prevY[i] = posY[i] - (posY[i] - prevY[i]) * factor;
         }
     }
 
     public void render(World world) {
+        final RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        final long started = System.nanoTime();
+        this.stats.beginRender();
+        this.renderFrame(world);
+        this.stats.endRender(System.nanoTime() - started);
+        event.complete(this.id, this.segmentCount(), this.viewers.size(), this.stats.particlesLastTick(), this.stats.entityUpdatesLastTick());
+    }
+
+    private void renderFrame(World world) {
         if (!this.configured()) {
             return;
         }
         Objects.requireNonNull(world, "world");
 
-        final ParticleStyle style = this.particleStyle;
+        final ChainSnapshot frame = this.nextFrame();
+        // the exposure keeps recording with nobody watching, so a viewer arriving later sees the real path
+        final TipHistory history = this.tipHistory;
+        history.capacity((int) Math.round(this.historySeconds * TICKS_PER_SECOND));
+        if (frame.nodeCount() > 0) {
+            history.record(frame.sequence(), frame.tipX(), frame.tipY());
+        }
+        if (this.renderTicks++ % this.viewerRefreshTicks == 0) {
+            refreshViewers(world);
+        }
+        if (this.viewers.isEmpty()) {
+            this.particleDemand = 0;
+            return;
+        }
+
+        final RenderPlan plan = this.renderPlan();
+        // the snapshot still shows the old shape for a tick after a resize
+        if (frame.nodeCount() != plan.nodeCount) {
+            return;
+        }
+        final LodTier lod = this.lod();
+        final double originX = this.anchor.getX();
+        final double originY = this.anchor.getY();
+        final double originZ = this.anchor.getZ();
+        final int nodeCount = plan.nodeCount;
+        final int stride = plan.stride;
+        final ParticleStyle style = plan.style;
+        final boolean weighted = style == ParticleStyle.WEIGHTED;
+        final boolean displayRods = this.rodDisplays && weighted;
+        final boolean particleRods = !isEntityStyle(style) && !displayRods;
+        final boolean trail = this.traceTip && lod.tipTrail() && this.qualityLevel < TRAIL_CUTOFF_LEVEL && nodeCount > 0;
+        final boolean exposure = history.size() > 1 && lod.tipTrail() && this.qualityLevel < TRAIL_CUTOFF_LEVEL;
+        final int historySamples = exposure ? Math.min(MAX_HISTORY_SAMPLES, history.size() - 1) : 0;
+        final double trailLength = trail ? tipPathLength(frame) : 0.0;
+        final int trailSamples = trailLength > 1e-6 ? Math.min(MAX_TRAIL_SAMPLES, Math.max(1, (int) Math.ceil(trailLength / lod.trailStep()))) : 0;
+
+        // thin every part of the frame evenly to fit the allowance; emit() still enforces it exactly
+        int demand = (trail ? trailSamples + 1 : 0) + historySamples;
+        if (!isEntityStyle(style)) {
+            demand += particleRods ? plan.rodDemand(lod.rodStep()) : 0;
+            demand += nodeDemand(nodeCount, stride) * lod.nodeParticles();
+        }
+        final int allowance = this.particleAllowance;
+        final double density = demand > allowance ? (double) allowance / demand : 1.0;
+        // the budget spreads a resting chain's demand over the ticks between its redraws
+        this.particleDemand = demand;
+        this.particlesLeft = allowance;
+
         if (isEntityStyle(style)) {
+            clearRodDisplays();
             ensureEntityPools(world, style);
-            for (int i = 0; i < this.nodes.size() - 1; i++) {
-                final Location from = toWorld(world, i);
-                final Location to = toWorld(world, i + 1);
-                final Vector delta = to.toVector().subtract(from.toVector());
-                final List<Entity> pool = this.segmentEntities.get(i);
-                final int count = pool.size();
-                for (int s = 0; s < count; s++) {
-                    final double t = count == 1 ? 0.5 : (double) s / (count - 1);
-                    final Location loc = from.clone().add(delta.clone().multiply(t));
-                    final Entity entity = pool.get(s);
-                    if (entity != null && entity.isValid()) {
-                        entity.teleport(loc);
-                    }
-                }
-            }
-
-            for (int i = 0; i < this.nodes.size(); i++) {
-                final boolean show = this.showNodes || i == 0;
-                if (!show) {
-                    continue;
-                }
-                if (i >= this.nodeEntities.size()) {
-                    ensureEntityPools(world, style);
-                }
-                final Entity nodeEntity = this.nodeEntities.get(i);
-                if (nodeEntity != null && nodeEntity.isValid()) {
-                    nodeEntity.teleport(toWorld(world, i));
-                }
+            // display entities interpolate between teleports client-side, so they only need a new target every few ticks
+            if (!this.displayEntities || this.renderTicks % DISPLAY_UPDATE_TICKS == 0) {
+                renderEntities(world, frame, nodeCount, style);
             }
         } else {
-            cleanupEntities();
-            for (int i = 0; i < this.nodes.size() - 1; i++) {
-                final Location from = toWorld(world, i);
-                final Location to = toWorld(world, i + 1);
-                final Vector delta = to.toVector().subtract(from.toVector());
-                final double dist = delta.length();
-                if (dist < 1e-6) {
+            clearEntityPools();
+            final Particle particle = plan.particle;
+            final double extra = plan.extra;
+            if (displayRods) {
+                renderRodDisplays(world, frame, plan);
+            } else {
+                clearRodDisplays();
+            }
+            final int[] rodSamples = particleRods ? plan.rodSamples(lod.rodStep()) : null;
+            for (int k = 0; k < plan.rods && particleRods; k++) {
+                final int i = k * stride;
+                final int j = Math.min(i + stride, nodeCount - 1);
+                final double fromX = originX + frame.x(i) * this.scale;
+                final double fromY = originY + frame.y(i) * this.scale;
+                final double deltaX = (frame.x(j) - frame.x(i)) * this.scale;
+                final double deltaY = (frame.y(j) - frame.y(i)) * this.scale;
+                if (deltaX * deltaX + deltaY * deltaY < 1e-12) {
                     continue;
                 }
-                final double massA = Math.max(MIN_MASS, this.nodes.get(i).mass());
-                final double massB = Math.max(MIN_MASS, this.nodes.get(i + 1).mass());
-                final double massSample = (massA + massB) * 0.5;
-                final Color rodColor = this.rodOverrideColor != null ? this.rodOverrideColor : colorForMass(massSample);
-                final Particle.DustOptions rodDust = new Particle.DustOptions(rodColor, 0.8f);
-                final double step = 0.15;
-                final int samples = Math.max(1, (int) Math.ceil(dist / step));
-                final Vector stride = delta.multiply(1.0 / samples);
-                final Location cursor = from.clone();
+                final Particle.DustOptions rodDust = weighted ? plan.rodDust[k] : null;
+                final int samples = Math.max(1, (int) (rodSamples[k] * density));
+                final double strideX = deltaX / samples;
+                final double strideY = deltaY / samples;
                 for (int s = 0; s <= samples; s++) {
-                    switch (style) {
-                        case WEIGHTED -> world.spawnParticle(Particle.DUST, cursor, 1, rodDust);
-                        case SPARK -> world.spawnParticle(Particle.ELECTRIC_SPARK, cursor, 1, 0.0, 0.0, 0.0, 0.0);
-                        case BUBBLE -> world.spawnParticle(Particle.BUBBLE, cursor, 1, 0.0, 0.0, 0.0, 0.0);
-                        case BUBBLE_COLUMN_UP -> world.spawnParticle(Particle.BUBBLE_COLUMN_UP, cursor, 1, 0.0, 0.0, 0.0, 0.0);
-                        case BUBBLE_POP -> world.spawnParticle(Particle.BUBBLE_POP, cursor, 1, 0.0, 0.0, 0.0, 0.0);
-                        default -> {}
-                    }
-                    cursor.add(stride);
+                    emit(world, particle, fromX + strideX * s, fromY + strideY * s, originZ, 1, extra, rodDust);
                 }
             }
 
-            for (int i = 0; i < this.nodes.size(); i++) {
-                final PendulumNode node = this.nodes.get(i);
-                final double mass = Math.max(MIN_MASS, node.mass());
-                final Location at = toWorld(world, i);
+            final int nodeParticles = lod.nodeParticles() == 0 ? 0 : Math.max(1, (int) (lod.nodeParticles() * density));
+            for (int i = 0; i < nodeCount && nodeParticles > 0; i++) {
                 if (!this.showNodes && i != 0) {
                     continue;
                 }
-                final float size = Math.max(this.nodeParticleSize, (float) Math.min(1.4, 0.3 + mass * 0.05));
-                switch (style) {
-                    case WEIGHTED -> {
-                        final Color nodeColor = this.nodeOverrideColor != null ? this.nodeOverrideColor : Color.fromRGB(255, 255, 255);
-                        final Particle.DustOptions bobDust = new Particle.DustOptions(nodeColor, size);
-                        world.spawnParticle(Particle.DUST, at, 3, bobDust);
-                    }
-                    case SPARK -> world.spawnParticle(Particle.ELECTRIC_SPARK, at, 3, 0.0, 0.0, 0.0, 0.0);
-                    case BUBBLE -> world.spawnParticle(Particle.BUBBLE, at, 3, 0.0, 0.0, 0.0, 0.0);
-                    case BUBBLE_COLUMN_UP -> world.spawnParticle(Particle.BUBBLE_COLUMN_UP, at, 3, 0.0, 0.0, 0.0, 0.0);
-                    case BUBBLE_POP -> world.spawnParticle(Particle.BUBBLE_POP, at, 3, 0.0, 0.0, 0.0, 0.0);
-                    default -> {}
+                if (i % stride != 0 && i != nodeCount - 1) {
+                    continue;
                 }
+                final Particle.DustOptions bobDust = weighted ? plan.nodeDust[i] : null;
+                emit(world, particle, originX + frame.x(i) * this.scale, originY + frame.y(i) * this.scale, originZ, nodeParticles, extra, bobDust);
             }
         }
 
-        if (this.traceTip && !this.nodes.isEmpty()) {
-            final Location tip = toWorld(world, this.nodes.size() - 1);
-            final Vec2 tipPos = this.nodes.get(this.nodes.size() - 1).pos();
-            final Vec2 tipPrev = this.nodes.get(this.nodes.size() - 1).prevPos();
-            final Vec2 delta = tipPos.subtract(tipPrev);
-            final double dist = delta.length();
-            if (dist > 1e-6) {
-                final int samples = Math.max(1, (int) Math.ceil(dist / 0.05));
-                final Vec2 step = delta.multiply(1.0 / samples);
-                Vec2 cursor = tipPrev;
-                for (int i = 0; i <= samples; i++) {
-                    final Location loc = new Location(
-                        world,
-                        this.anchor.getX() + cursor.x() * this.scale,
-                        this.anchor.getY() + cursor.y() * this.scale,
-                        this.anchor.getZ()
-                    );
-                    world.spawnParticle(mapTipParticle(), loc, 1, 0.0, 0.0, 0.0, 0.0);
-                    cursor = cursor.add(step);
-                }
+        if (exposure) {
+            renderHistory(world, plan, Math.max(1, (int) (historySamples * density)));
+        }
+        if (trail) {
+            if (trailSamples > 0) {
+                renderTipPath(world, frame, plan.tipParticle, Math.max(1, (int) (trailSamples * density)), trailLength);
             } else {
-                world.spawnParticle(mapTipParticle(), tip, 1, 0.0, 0.0, 0.0, 0.0);
+                emit(world, plan.tipParticle, originX + frame.tipX() * this.scale, originY + frame.tipY() * this.scale, originZ, 1, 0.0, null);
             }
         }
     }
 
-    private Location toWorld(World world, int nodeIndex) {
-        final Vec2 pos = this.nodes.get(nodeIndex).pos();
-        final double worldX = this.anchor.getX() + pos.x() * this.scale;
-        final double worldY = this.anchor.getY() + pos.y() * this.scale;
-        final double worldZ = this.anchor.getZ();
-        return new Location(world, worldX, worldY, worldZ);
+    // advances a replay and feeds a recording once per tick, whether or not anyone is watching
+    private ChainSnapshot nextFrame() {
+        final TrajectoryReplay replay = this.replay;
+        final ChainSnapshot frame;
+        if (replay != null) {
+            replay.advance();
+            frame = replay.frame();
+        } else {
+            frame = this.front;
+        }
+        final TrajectoryRecorder recorder = this.recorder;
+        if (recorder != null) {
+            if (this.state.nodeCount != recorder.nodeCount()) {
+                // reshaped mid-recording; the file keeps what it has
+                this.recorder = null;
+                recorder.close();
+            } else {
+                recorder.record(frame);
+            }
+        }
+        return frame;
+    }
+
+    private RenderPlan renderPlan() {
+        final int revision = this.renderRevision;
+        RenderPlan plan = this.renderPlan;
+        if (plan == null || plan.revision != revision || plan.nodeCount != this.state.nodeCount) {
+            final int nodeCount = this.state.nodeCount;
+            // long ropes are drawn as a polyline through every stride-th node
+            final int stride = Math.max(1, (nodeCount - 2) / MAX_RENDERED_RODS + 1);
+            // a pooled entity per node and rod segment does not scale to ropes
+            final ParticleStyle style = this.rope && isEntityStyle(this.particleStyle) ? ParticleStyle.WEIGHTED : this.particleStyle;
+            plan = new RenderPlan(revision, this.state, stride, this.scale, style, particleFor(style), mapTipParticle(),
+                this.rodOverrideColor, this.nodeOverrideColor, this.nodeParticleSize, MIN_MASS);
+            this.renderPlan = plan;
+        }
+        return plan;
+    }
+
+    // anything the render plan caches must call this
+    private void invalidateRenderPlan() {
+        this.renderRevision++;
+    }
+
+    private int nodeDemand(int nodeCount, int stride) {
+        if (!this.showNodes) {
+            return 1;
+        }
+        // every stride-th node plus the tip
+        return (nodeCount - 1) / stride + ((nodeCount - 1) % stride == 0 ? 1 : 2);
+    }
+
+    // Recent points are dense and old ones sparse: the j-th of n samples sits at age (j/n)^2 of the history,
+    // and colour and size step down with age.
+    private void renderHistory(World world, RenderPlan plan, int samples) {
+        final TipHistory history = this.tipHistory;
+        final int size = history.size();
+        final double originX = this.anchor.getX();
+        final double originY = this.anchor.getY();
+        final double originZ = this.anchor.getZ();
+        int lastAge = 0;
+        for (int j = 1; j <= samples; j++) {
+            final double u = (double) j / samples;
+            final int age = Math.max(lastAge + 1, (int) (u * u * (size - 1)));
+            if (age >= size) {
+                break;
+            }
+            lastAge = age;
+            final Particle.DustOptions dust = plan.historyDust[age * RenderPlan.FADE_STEPS / size];
+            emit(world, Particle.DUST, originX + history.x(age) * this.scale, originY + history.y(age) * this.scale, originZ, 1, 0.0, dust);
+        }
+    }
+
+    // 0 when the tip has not moved and only a single particle marks it
+    private static double tipPathLength(ChainSnapshot frame) {
+        double length = 0.0;
+        for (int i = 1; i < frame.tipPathCount(); i++) {
+            length += Math.hypot(frame.tipPathX(i) - frame.tipPathX(i - 1), frame.tipPathY(i) - frame.tipPathY(i - 1));
+        }
+        return length;
+    }
+
+    // evenly spaced along the substep polyline, so the curve between ticks survives however far it is thinned
+    private void renderTipPath(World world, ChainSnapshot frame, Particle particle, int samples, double length) {
+        final double originX = this.anchor.getX();
+        final double originY = this.anchor.getY();
+        final double originZ = this.anchor.getZ();
+        final double spacing = length / samples;
+        double walked = 0.0;
+        int emitted = 0;
+        for (int i = 1; i < frame.tipPathCount() && emitted <= samples; i++) {
+            final double fromX = frame.tipPathX(i - 1);
+            final double fromY = frame.tipPathY(i - 1);
+            final double deltaX = frame.tipPathX(i) - fromX;
+            final double deltaY = frame.tipPathY(i) - fromY;
+            final double piece = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+            // the last sample lands on the very end of the path, give or take rounding
+            while (emitted <= samples && spacing * emitted <= walked + piece + 1e-9) {
+                final double t = piece > 0.0 ? Math.min(1.0, (spacing * emitted - walked) / piece) : 0.0;
+                emit(world, particle, originX + (fromX + deltaX * t) * this.scale, originY + (fromY + deltaY * t) * this.scale, originZ, 1, 0.0, null);
+                emitted++;
+            }
+            walked += piece;
+        }
+    }
+
+    private void renderEntities(World world, ChainSnapshot frame, int nodeCount, ParticleStyle style) {
+        final Location cursor = this.cursor;
+        cursor.setWorld(world);
+        for (int i = 0; i < nodeCount - 1; i++) {
+            final double fromX = this.anchor.getX() + frame.x(i) * this.scale;
+            final double fromY = this.anchor.getY() + frame.y(i) * this.scale;
+            final double deltaX = (frame.x(i + 1) - frame.x(i)) * this.scale;
+            final double deltaY = (frame.y(i + 1) - frame.y(i)) * this.scale;
+            final List<Entity> pool = this.segmentEntities.get(i);
+            final int count = pool.size();
+            for (int s = 0; s < count; s++) {
+                final double t = count == 1 ? 0.5 : (double) s / (count - 1);
+                final Entity entity = pool.get(s);
+                if (entity != null && entity.isValid()) {
+                    // teleport copies the coordinates, so one cursor serves every entity
+                    entity.teleport(cursor.set(fromX + deltaX * t, fromY + deltaY * t, this.anchor.getZ()));
+                    this.stats.countEntityUpdate();
+                }
+            }
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            final boolean show = this.showNodes || i == 0;
+            if (!show) {
+                continue;
+            }
+            if (i >= this.nodeEntities.size()) {
+                ensureEntityPools(world, style);
+            }
+            final Entity nodeEntity = this.nodeEntities.get(i);
+            if (nodeEntity != null && nodeEntity.isValid()) {
+                nodeEntity.teleport(cursor.set(this.anchor.getX() + frame.x(i) * this.scale, this.anchor.getY() + frame.y(i) * this.scale, this.anchor.getZ()));
+                this.stats.countEntityUpdate();
+            }
+        }
+    }
+
+    private void renderRodDisplays(World world, ChainSnapshot frame, RenderPlan plan) {
+        if (this.rodOrigin != null && !this.rodOrigin.equals(this.anchor)) {
+            clearRodDisplays();
+        }
+        final int nodeCount = plan.nodeCount;
+        final int stride = plan.stride;
+        final int segments = plan.rods;
+        while (this.rodEntities.size() < segments) {
+            this.rodEntities.add(spawnRod(world));
+            this.rodBlocks.add(null);
+        }
+        while (this.rodEntities.size() > segments) {
+            this.rodEntities.remove(this.rodEntities.size() - 1).remove();
+            this.rodBlocks.remove(this.rodBlocks.size() - 1);
+        }
+
+        final float half = ROD_THICKNESS * 0.5f;
+        for (int i = 0; i < segments; i++) {
+            final BlockDisplay rod = this.rodEntities.get(i);
+            if (!rod.isValid()) {
+                continue;
+            }
+            final int a = i * stride;
+            final int b = Math.min(a + stride, nodeCount - 1);
+            final Material block = plan.rodBlocks[i];
+            if (this.rodBlocks.get(i) != block) {
+                rod.setBlock(block.createBlockData());
+                this.rodBlocks.set(i, block);
+            }
+
+            final float fromX = (float) (frame.x(a) * this.scale);
+            final float fromY = (float) (frame.y(a) * this.scale);
+            final float deltaX = (float) ((frame.x(b) - frame.x(a)) * this.scale);
+            final float deltaY = (float) ((frame.y(b) - frame.y(a)) * this.scale);
+            final float length = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+            // turn the cube's +y edge onto the rod, then pull it back by half the thickness so it stays centred on the nodes
+            final float angle = (float) Math.atan2(-deltaX, deltaY);
+            final float cos = (float) Math.cos(angle);
+            final float sin = (float) Math.sin(angle);
+            this.stats.countEntityUpdate();
+            rod.setInterpolationDelay(0);
+            rod.setTransformationMatrix(this.rodMatrix
+                .translation(fromX - half * cos, fromY - half * sin, -half)
+                .rotateZ(angle)
+                .scale(ROD_THICKNESS, length, ROD_THICKNESS));
+        }
+    }
+
+    private BlockDisplay spawnRod(World world) {
+        // transformations are relative to the entity, so it must sit unrotated on the anchor
+        this.rodOrigin = this.anchor.clone();
+        final Location origin = new Location(world, this.anchor.getX(), this.anchor.getY(), this.anchor.getZ(), 0.0f, 0.0f);
+        return world.spawn(origin, BlockDisplay.class, display -> {
+            display.setInterpolationDuration(1);
+            display.setBrightness(new Display.Brightness(15, 15));
+            display.setPersistent(false);
+        });
+    }
+
+    private void clearRodDisplays() {
+        this.rodEntities.forEach(Entity::remove);
+        this.rodEntities.clear();
+        this.rodBlocks.clear();
+    }
+
+    private void refreshViewers(World world) {
+        this.viewers.clear();
+        double reach = 0.0;
+        for (final double length : this.state.segmentLength) {
+            reach += length;
+        }
+        this.viewers.addAll(world.getNearbyPlayers(this.anchor, this.viewRadius + reach * this.scale));
+
+        double nearestSquared = Double.POSITIVE_INFINITY;
+        for (final Player viewer : this.viewers) {
+            nearestSquared = Math.min(nearestSquared, viewer.getLocation(this.cursor).distanceSquared(this.anchor));
+        }
+        this.nearestViewerDistance = Math.sqrt(nearestSquared);
+        int chosen = this.lodTiers.size() - 1;
+        for (int i = 0; i < this.lodTiers.size(); i++) {
+            if (this.nearestViewerDistance <= this.lodTiers.get(i).maxDistance()) {
+                chosen = i;
+                break;
+            }
+        }
+        this.lodIndex = chosen;
+    }
+
+    private void emit(World world, Particle particle, double x, double y, double z, int count, double extra, Object data) {
+        final int sent = Math.min(count, this.particlesLeft);
+        if (sent <= 0) {
+            return;
+        }
+        this.particlesLeft -= sent;
+        // beyond the vanilla 32 block particle range receivers only get packets when forced
+        world.spawnParticle(particle, this.viewers, null, x, y, z, sent, 0.0, 0.0, 0.0, extra, data, this.viewRadius > VANILLA_PARTICLE_RANGE);
+        this.stats.countParticles(sent);
+    }
+
+    private static Particle particleFor(ParticleStyle style) {
+        return switch (style) {
+            case SPARK -> Particle.ELECTRIC_SPARK;
+            case BUBBLE -> Particle.BUBBLE;
+            case BUBBLE_COLUMN_UP -> Particle.BUBBLE_COLUMN_UP;
+            case BUBBLE_POP -> Particle.BUBBLE_POP;
+            default -> Particle.DUST;
+        };
     }
 
     private void ensureIndex(int idx) {
-        if (idx < 0 || idx >= this.segmentLength.length) {
+        if (idx < 0 || idx >= this.state.segmentLength.length) {
             throw new IndexOutOfBoundsException(idx);
         }
     }
 
     private void ensureNodeIndex(int idx) {
-        if (idx < 0 || idx >= this.nodes.size()) {
+        if (idx < 0 || idx >= this.state.nodeCount) {
             throw new IndexOutOfBoundsException(idx);
         }
     }
@@ -527,30 +1499,30 @@ public final class PendulumChain {
     }
 
     private ItemStack fishItemFor(int index) {
-        return (index & 1) == 0 ? this.itemParticleEven : this.itemParticleOdd;
+        if ((index & 1) == 0) {
+            return this.itemParticleEven != null ? this.itemParticleEven : DefaultItems.COD;
+        }
+        return this.itemParticleOdd != null ? this.itemParticleOdd : DefaultItems.SALMON;
     }
 
     private ItemStack chickenItemFor(int index) {
-        return (index & 1) == 0 ? CHICKEN_PARTICLE : COOKED_CHICKEN_PARTICLE;
+        return (index & 1) == 0 ? DefaultItems.CHICKEN : DefaultItems.COOKED_CHICKEN;
     }
 
     private void ensureEntityPools(World world, ParticleStyle style) {
         if (!isEntityStyle(style)) {
-            cleanupEntities();
+            clearEntityPools();
             return;
         }
-        final EntityType typeEven = entityTypeFor(style, 0);
-        final EntityType typeOdd = entityTypeFor(style, 1);
-
-        while (this.nodeEntities.size() < this.nodes.size()) {
-            this.nodeEntities.add(spawnEntity(world, this.nodeEntities.size() % 2 == 0 ? typeEven : typeOdd));
+        while (this.nodeEntities.size() < this.state.nodeCount) {
+            this.nodeEntities.add(spawnPooled(world, style, this.nodeEntities.size()));
         }
-        while (this.nodeEntities.size() > this.nodes.size()) {
+        while (this.nodeEntities.size() > this.state.nodeCount) {
             final Entity removed = this.nodeEntities.remove(this.nodeEntities.size() - 1);
             removed.remove();
         }
 
-        final int segments = this.segmentLength.length;
+        final int segments = this.state.segmentLength.length;
         while (this.segmentEntities.size() < segments) {
             this.segmentEntities.add(new ArrayList<>());
         }
@@ -561,10 +1533,9 @@ public final class PendulumChain {
 
         for (int i = 0; i < segments; i++) {
             final List<Entity> pool = this.segmentEntities.get(i);
-            final int desired = Math.max(2, Math.min(12, (int) Math.ceil(this.segmentLength[i] / 0.5)));
+            final int desired = Math.max(2, Math.min(12, (int) Math.ceil(this.state.segmentLength[i] / 0.5)));
             while (pool.size() < desired) {
-                final EntityType type = pool.size() % 2 == 0 ? typeEven : typeOdd;
-                pool.add(spawnEntity(world, type));
+                pool.add(spawnPooled(world, style, pool.size()));
             }
             while (pool.size() > desired) {
                 final Entity removed = pool.remove(pool.size() - 1);
@@ -574,6 +1545,11 @@ public final class PendulumChain {
     }
 
     public void cleanupEntities() {
+        clearEntityPools();
+        clearRodDisplays();
+    }
+
+    private void clearEntityPools() {
         this.nodeEntities.forEach(Entity::remove);
         this.nodeEntities.clear();
         for (final List<Entity> list : this.segmentEntities) {
@@ -590,6 +1566,21 @@ public final class PendulumChain {
         };
     }
 
+    private Entity spawnPooled(World world, ParticleStyle style, int index) {
+        if (this.displayEntities) {
+            return spawnDisplay(world, style == ParticleStyle.CHICKEN ? chickenItemFor(index) : fishItemFor(index));
+        }
+        return spawnEntity(world, entityTypeFor(style, index));
+    }
+
+    private Entity spawnDisplay(World world, ItemStack item) {
+        return world.spawn(this.anchor, ItemDisplay.class, display -> {
+            display.setItemStack(item);
+            display.setTeleportDuration(DISPLAY_UPDATE_TICKS);
+            display.setPersistent(false);
+        });
+    }
+
     private Entity spawnEntity(World world, EntityType type) {
         final Entity entity = world.spawnEntity(this.anchor, type, false);
         if (entity instanceof LivingEntity living) {
@@ -607,26 +1598,15 @@ public final class PendulumChain {
         return style == ParticleStyle.FISH || style == ParticleStyle.CHICKEN;
     }
 
-    private Color colorForMass(double mass) {
-        double min = Double.POSITIVE_INFINITY;
-        double max = Double.NEGATIVE_INFINITY;
-        for (int i = 1; i < this.nodes.size(); i++) {
-            final double m = Math.max(MIN_MASS, this.nodes.get(i).mass());
-            min = Math.min(min, m);
-            max = Math.max(max, m);
-        }
-        if (!Double.isFinite(min) || !Double.isFinite(max)) {
-            min = max = mass;
-        }
-        final double span = Math.max(1e-9, max - min);
-        final double t = Math.max(0.0, Math.min(1.0, (mass - min) / span));
-        final int r = (int) Math.round(64 + (180 - 64) * t);
-        final int g = (int) Math.round(255 - (255 - 32) * t);
-        final int b = (int) Math.round(128 - (128 - 32) * t);
-        return Color.fromRGB(r, g, b);
-    }
-
     private static double clamp(double value, double min, double max) {
         return Math.max(min, Math.min(max, value));
     }
+
+    // item stacks need a running server, so chains must stay constructible without touching them
+    private static final class DefaultItems {
+        private static final ItemStack COD = new ItemStack(Material.COD);
+        private static final ItemStack SALMON = new ItemStack(Material.SALMON);
+        private static final ItemStack CHICKEN = new ItemStack(Material.CHICKEN);
+        private static final ItemStack COOKED_CHICKEN = new ItemStack(Material.COOKED_CHICKEN);
+    }
 }
@@ -0,0 +1,127 @@
+package sh.harold.fulcrum.physics;
+
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+
+// Everything a frame needs that only changes when the chain is edited. Built on the render thread when the
+// chain's render revision moves, so a steady frame allocates nothing.
+final class RenderPlan {
+
+    static final int FADE_STEPS = 8;
+
+    private static final float ROD_DUST_SIZE = 0.8f;
+    private static final Color NODE_COLOR = Color.fromRGB(255, 255, 255);
+    private static final Color HISTORY_COLOR = Color.fromRGB(255, 236, 196);
+    private static final Color HISTORY_FADED = Color.fromRGB(40, 40, 64);
+
+    final int revision;
+    final int nodeCount;
+    final int stride;
+    final int rods;
+    final ParticleStyle style;
+    final Particle particle;
+    final double extra;
+    final Particle tipParticle;
+    final Particle.DustOptions[] rodDust;
+    final Material[] rodBlocks;
+    final Particle.DustOptions[] nodeDust;
+    final Particle.DustOptions[] historyDust = new Particle.DustOptions[FADE_STEPS];
+    private final double[] rodReach;
+    private final int[] rodSamples;
+    private double sampleStep = Double.NaN;
+    private int rodDemand;
+
+    RenderPlan(int revision, ChainState s, int stride, double scale, ParticleStyle style, Particle particle, Particle tipParticle,
+               Color rodOverride, Color nodeOverride, float nodeSize, double minMass) {
+        this.revision = revision;
+        this.nodeCount = s.nodeCount;
+        this.stride = stride;
+        this.rods = Math.max(0, (this.nodeCount - 2) / stride + 1);
+        this.style = style;
+        this.particle = particle;
+        this.extra = style == ParticleStyle.WEIGHTED ? 1.0 : 0.0;
+        this.tipParticle = tipParticle;
+        this.rodDust = new Particle.DustOptions[this.rods];
+        this.rodBlocks = new Material[this.rods];
+        this.nodeDust = new Particle.DustOptions[this.nodeCount];
+        this.rodReach = new double[this.rods];
+        this.rodSamples = new int[this.rods];
+
+        // one pass for the mass range instead of one per rod
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 1; i < this.nodeCount; i++) {
+            final double m = Math.max(minMass, s.mass[i]);
+            min = Math.min(min, m);
+            max = Math.max(max, m);
+        }
+
+        for (int k = 0; k < this.rods; k++) {
+            final int a = k * stride;
+            final int b = Math.min(a + stride, this.nodeCount - 1);
+            final double massSample = (Math.max(minMass, s.mass[a]) + Math.max(minMass, s.mass[b])) * 0.5;
+            final Color color = rodOverride != null ? rodOverride : colorForMass(massSample, min, max);
+            this.rodDust[k] = new Particle.DustOptions(color, ROD_DUST_SIZE);
+            this.rodBlocks[k] = ConcretePalette.nearest(color);
+            double reach = 0.0;
+            for (int i = a; i < b; i++) {
+                reach += s.segmentLength[i];
+            }
+            this.rodReach[k] = reach * scale;
+        }
+
+        final Color nodeColor = nodeOverride != null ? nodeOverride : NODE_COLOR;
+        for (int i = 0; i < this.nodeCount; i++) {
+            final double mass = Math.max(minMass, s.mass[i]);
+            final float size = Math.max(nodeSize, (float) Math.min(1.4, 0.3 + mass * 0.05));
+            this.nodeDust[i] = new Particle.DustOptions(nodeColor, size);
+        }
+
+        // older history points get darker and smaller; dust has no alpha to fade with
+        final Color historyColor = nodeOverride != null ? nodeOverride : HISTORY_COLOR;
+        for (int step = 0; step < FADE_STEPS; step++) {
+            final double t = (double) step / (FADE_STEPS - 1);
+            final Color faded = Color.fromRGB(
+                mix(historyColor.getRed(), HISTORY_FADED.getRed(), t),
+                mix(historyColor.getGreen(), HISTORY_FADED.getGreen(), t),
+                mix(historyColor.getBlue(), HISTORY_FADED.getBlue(), t)
+            );
+            this.historyDust[step] = new Particle.DustOptions(faded, (float) (0.9 - 0.5 * t));
+        }
+    }
+
+    // sample counts along each rod at full detail for this tier's spacing
+    int[] rodSamples(double rodStep) {
+        if (rodStep != this.sampleStep) {
+            this.sampleStep = rodStep;
+            this.rodDemand = 0;
+            for (int k = 0; k < this.rods; k++) {
+                this.rodSamples[k] = Math.max(1, (int) Math.ceil(this.rodReach[k] / rodStep));
+                this.rodDemand += this.rodSamples[k] + 1;
+            }
+        }
+        return this.rodSamples;
+    }
+
+    int rodDemand(double rodStep) {
+        this.rodSamples(rodStep);
+        return this.rodDemand;
+    }
+
+    private static int mix(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * t);
+    }
+
+    private static Color colorForMass(double mass, double min, double max) {
+        if (!Double.isFinite(min) || !Double.isFinite(max)) {
+            min = max = mass;
+        }
+        final double span = Math.max(1e-9, max - min);
+        final double t = Math.max(0.0, Math.min(1.0, (mass - min) / span));
+        final int r = (int) Math.round(64 + (180 - 64) * t);
+        final int g = (int) Math.round(255 - (255 - 32) * t);
+        final int b = (int) Math.round(128 - (128 - 32) * t);
+        return Color.fromRGB(r, g, b);
+    }
+}
@@ -0,0 +1,45 @@
+package sh.harold.fulcrum.physics;
+
+import java.util.Arrays;
+
+// Fixed window of the most recent samples. Recording is a store and an index bump; sorting only happens
+// when somebody asks for a summary.
+public final class RollingHistogram {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    public RollingHistogram(int window) {
+        this.samples = new long[Math.max(1, window)];
+    }
+
+    public synchronized void record(long value) {
+        this.samples[this.next] = value;
+        this.next = (this.next + 1) % this.samples.length;
+        if (this.size < this.samples.length) {
+            this.size++;
+        }
+    }
+
+    public synchronized Summary summary() {
+        if (this.size == 0) {
+            return new Summary(0, 0L, 0L, 0L, 0L);
+        }
+        final long[] sorted = Arrays.copyOf(this.samples, this.size);
+        Arrays.sort(sorted);
+        long total = 0L;
+        for (final long sample : sorted) {
+            total += sample;
+        }
+        return new Summary(this.size, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1], total / sorted.length);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        final int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public record Summary(int samples, long p50, long p99, long max, long mean) {
+    }
+}
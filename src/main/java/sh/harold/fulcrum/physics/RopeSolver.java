@@ -0,0 +1,49 @@
+package sh.harold.fulcrum.physics;
+
+// Even rods never share a node with other even rods (same for odd), so a pass projects every even rod and
+// then every odd one, each against a consistent set of neighbours. Forking the colours across a pool was
+// slower at every rope length up to the cap: a colour at 512 links is about a microsecond of work, well under
+// one fork/join barrier, and a tick runs 160 of them. Separate ropes still step in parallel on the async
+// physics pool.
+final class RopeSolver {
+
+    double solve(ChainState s) {
+        return Math.max(project(s, 0), project(s, 1));
+    }
+
+    private static double project(ChainState s, int parity) {
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] invMass = s.invMass;
+        final double[] segmentLength = s.segmentLength;
+        final int rods = s.nodeCount - 1;
+        double maxError = 0.0;
+        for (int i = parity; i < rods; i += 2) {
+            final int j = i + 1;
+            final double dx = posX[j] - posX[i];
+            final double dy = posY[j] - posY[i];
+            final double dist = Math.sqrt(dx * dx + dy * dy);
+            if (dist < 1e-9) {
+                continue;
+            }
+
+            final double w1 = invMass[i];
+            final double w2 = invMass[j];
+            final double wSum = w1 + w2;
+            if (wSum == 0.0) {
+                continue;
+            }
+
+            final double error = dist - segmentLength[i];
+            maxError = Math.max(maxError, Math.abs(error));
+            final double k = error / (dist * wSum);
+            final double cx = dx * k;
+            final double cy = dy * k;
+            posX[i] += cx * w1;
+            posY[i] += cy * w1;
+            posX[j] -= cx * w2;
+            posY[j] -= cy * w2;
+        }
+        return maxError;
+    }
+}
@@ -0,0 +1,7 @@
+package sh.harold.fulcrum.physics;
+
+public enum SolverMode {
+    GAUSS_SEIDEL,
+    DIRECT,
+    XPBD
+}
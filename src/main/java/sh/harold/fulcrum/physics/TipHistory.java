@@ -0,0 +1,74 @@
+package sh.harold.fulcrum.physics;
+
+// One tip position per physics frame for the long-exposure trail. Points are stored as centimetres in shorts,
+// which reaches 327 m either side of the anchor at four bytes a point; the ring never grows past its capacity.
+// Owned by the render thread.
+final class TipHistory {
+
+    private static final double QUANTUM = 0.01;
+
+    private short[] x = new short[0];
+    private short[] y = new short[0];
+    private int head;
+    private int size;
+    private long lastSequence = -1L;
+
+    int capacity() {
+        return this.x.length;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void capacity(int capacity) {
+        if (capacity == this.x.length) {
+            return;
+        }
+        this.x = new short[capacity];
+        this.y = new short[capacity];
+        this.clear();
+    }
+
+    void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    // records the frame's tip once; a sequence that went backwards means the pose was reset
+    void record(long sequence, double tipX, double tipY) {
+        if (sequence == this.lastSequence) {
+            return;
+        }
+        if (sequence < this.lastSequence) {
+            this.clear();
+        }
+        this.lastSequence = sequence;
+        final int capacity = this.x.length;
+        if (capacity == 0) {
+            return;
+        }
+        this.x[this.head] = quantise(tipX);
+        this.y[this.head] = quantise(tipY);
+        this.head = (this.head + 1) % capacity;
+        this.size = Math.min(this.size + 1, capacity);
+    }
+
+    // age 0 is the newest point
+    double x(int age) {
+        return this.x[this.slot(age)] * QUANTUM;
+    }
+
+    double y(int age) {
+        return this.y[this.slot(age)] * QUANTUM;
+    }
+
+    private int slot(int age) {
+        final int capacity = this.x.length;
+        return (this.head - 1 - age + capacity * 2) % capacity;
+    }
+
+    private static short quantise(double value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value / QUANTUM)));
+    }
+}
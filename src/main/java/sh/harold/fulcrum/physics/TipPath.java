@@ -0,0 +1,41 @@
+package sh.harold.fulcrum.physics;
+
+// Tip position after every substep, oldest overwritten first. Snapshots take everything written since the
+// previous snapshot plus the point before it, so consecutive frames join up into one line.
+final class TipPath {
+
+    static final int CAPACITY = 128;
+    private static final int MASK = CAPACITY - 1;
+
+    final double[] x = new double[CAPACITY];
+    final double[] y = new double[CAPACITY];
+    long written;
+    long published;
+
+    void append(double tipX, double tipY) {
+        final int slot = (int) (this.written & MASK);
+        this.x[slot] = tipX;
+        this.y[slot] = tipY;
+        this.written++;
+    }
+
+    // after a pose change the old path no longer leads anywhere
+    void restart(double tipX, double tipY) {
+        this.written = 0L;
+        this.published = 0L;
+        this.append(tipX, tipY);
+    }
+
+    // copies the unpublished stretch into the given arrays and returns how many points it holds
+    int drain(double[] intoX, double[] intoY) {
+        final long from = Math.max(Math.max(0L, this.published - 1L), this.written - CAPACITY);
+        final int count = (int) (this.written - from);
+        for (int i = 0; i < count; i++) {
+            final int slot = (int) ((from + i) & MASK);
+            intoX[i] = this.x[slot];
+            intoY[i] = this.y[slot];
+        }
+        this.published = this.written;
+        return count;
+    }
+}
@@ -0,0 +1,49 @@
+package sh.harold.fulcrum.physics;
+
+import java.nio.ByteBuffer;
+
+// Layout of a recorded run. Header: magic, version, node count, flags, quantum, segment lengths, node masses.
+// Then one record per tick: a varint byte length, the node positions as zig-zag varint deltas from the previous
+// tick, and the substep tip path as deltas along itself starting from the previous tick's tip. Positions are
+// whole multiples of the quantum relative to the anchor, so deltas add back up without drift.
+final class Trajectory {
+
+    static final int MAGIC = 0x504E4454;
+    static final int VERSION = 1;
+    static final int FLAG_ROPE = 1;
+    static final double QUANTUM = 1e-4;
+    // worst case per varint of an int delta
+    static final int MAX_VARINT_BYTES = 5;
+
+    private Trajectory() {
+    }
+
+    static int quantise(double value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, Math.round(value / QUANTUM)));
+    }
+
+    static int maxFrameBytes(int nodeCount) {
+        return (nodeCount * 2 + 1 + TipPath.CAPACITY * 2) * MAX_VARINT_BYTES;
+    }
+
+    static void putVarint(ByteBuffer out, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.put((byte) zigzag);
+    }
+
+    static int getVarint(ByteBuffer in) {
+        int zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            zigzag |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0 && shift < 35);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
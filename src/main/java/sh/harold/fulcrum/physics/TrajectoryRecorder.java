@@ -0,0 +1,184 @@
+package sh.harold.fulcrum.physics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+// Encodes one frame per tick on the render thread into a block buffer and hands full blocks to the executor,
+// which appends them in order. Nothing on the tick touches the disk.
+public final class TrajectoryRecorder {
+
+    private static final int BLOCK_BYTES = 64 * 1024;
+
+    private final Path file;
+    private final Executor io;
+    private final int nodeCount;
+    private final int[] lastX;
+    private final int[] lastY;
+    private final ByteBuffer scratch;
+    private final Queue<ByteBuffer> blocks = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    private ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES);
+    private FileChannel channel;
+    private boolean opened;
+    private volatile boolean closed;
+    private long frames;
+    private volatile long bytesWritten;
+    private volatile IOException failure;
+
+    public TrajectoryRecorder(Path file, Executor io, PendulumChain chain) {
+        this.file = file;
+        this.io = io;
+        final ChainState s = chain.state();
+        this.nodeCount = s.nodeCount;
+        this.lastX = new int[this.nodeCount];
+        this.lastY = new int[this.nodeCount];
+        this.scratch = ByteBuffer.allocate(Trajectory.maxFrameBytes(this.nodeCount));
+        this.block.putInt(Trajectory.MAGIC);
+        this.block.putShort((short) Trajectory.VERSION);
+        this.block.putShort((short) this.nodeCount);
+        this.block.put((byte) (chain.rope() ? Trajectory.FLAG_ROPE : 0));
+        this.block.putDouble(Trajectory.QUANTUM);
+        for (int i = 0; i < this.nodeCount - 1; i++) {
+            this.block.putDouble(s.segmentLength[i]);
+        }
+        for (int i = 0; i < this.nodeCount; i++) {
+            this.block.putDouble(s.mass[i]);
+        }
+    }
+
+    public Path file() {
+        return this.file;
+    }
+
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    public synchronized long frames() {
+        return this.frames;
+    }
+
+    public long bytesWritten() {
+        return this.bytesWritten;
+    }
+
+    public IOException failure() {
+        return this.failure;
+    }
+
+    synchronized void record(ChainSnapshot frame) {
+        if (this.closed || frame.nodeCount() != this.nodeCount) {
+            return;
+        }
+        final ByteBuffer out = this.scratch.clear();
+        for (int i = 0; i < this.nodeCount; i++) {
+            final int x = Trajectory.quantise(frame.x(i));
+            final int y = Trajectory.quantise(frame.y(i));
+            Trajectory.putVarint(out, x - this.lastX[i]);
+            Trajectory.putVarint(out, y - this.lastY[i]);
+        }
+        // the path is chained off last tick's tip, which is where it starts
+        final int tip = this.nodeCount - 1;
+        int pathX = this.lastX[tip];
+        int pathY = this.lastY[tip];
+        final int pathCount = frame.tipPathCount();
+        Trajectory.putVarint(out, pathCount);
+        for (int i = 0; i < pathCount; i++) {
+            final int x = Trajectory.quantise(frame.tipPathX(i));
+            final int y = Trajectory.quantise(frame.tipPathY(i));
+            Trajectory.putVarint(out, x - pathX);
+            Trajectory.putVarint(out, y - pathY);
+            pathX = x;
+            pathY = y;
+        }
+        for (int i = 0; i < this.nodeCount; i++) {
+            this.lastX[i] = Trajectory.quantise(frame.x(i));
+            this.lastY[i] = Trajectory.quantise(frame.y(i));
+        }
+        out.flip();
+
+        if (this.block.remaining() < out.remaining() + Trajectory.MAX_VARINT_BYTES) {
+            this.handOff();
+        }
+        Trajectory.putVarint(this.block, out.remaining());
+        this.block.put(out);
+        this.frames++;
+    }
+
+    // flushes the last block and closes the file on the executor
+    public synchronized void close() {
+        if (this.finish()) {
+            this.io.execute(this::drain);
+        }
+    }
+
+    // for shutdown, when the executor may no longer run anything
+    public synchronized void closeNow() {
+        if (this.finish()) {
+            this.drain();
+        }
+    }
+
+    // the last block is queued before closed is seen, so whichever drain closes the file has written it
+    private boolean finish() {
+        if (this.closed) {
+            return false;
+        }
+        this.blocks.add(this.block.flip());
+        this.block = null;
+        this.closed = true;
+        return true;
+    }
+
+    private void handOff() {
+        this.blocks.add(this.block.flip());
+        this.block = ByteBuffer.allocate(BLOCK_BYTES);
+        this.io.execute(this::drain);
+    }
+
+    // blocks leave the queue in order under the write lock, so overlapping drains can't reorder them
+    private void drain() {
+        synchronized (this.writeLock) {
+            try {
+                if (!this.opened) {
+                    this.opened = true;
+                    Files.createDirectories(this.file.getParent());
+                    this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                }
+                ByteBuffer next;
+                while ((next = this.blocks.poll()) != null) {
+                    while (this.channel != null && next.hasRemaining()) {
+                        this.bytesWritten += this.channel.write(next);
+                    }
+                }
+                if (this.closed && this.blocks.isEmpty() && this.channel != null) {
+                    this.channel.close();
+                    this.channel = null;
+                }
+            } catch (IOException ex) {
+                this.failure = ex;
+                this.blocks.clear();
+                this.closeQuietly();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch (IOException ignored) {
+            // already failing; the first error is the one worth reporting
+        }
+        this.channel = null;
+    }
+}
@@ -0,0 +1,151 @@
+package sh.harold.fulcrum.physics;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Plays a recorded run back one frame per tick straight out of a memory-mapped file; the page cache does
+// the buffering and nothing is read ahead into the heap. Loops back to the first frame at the end.
+public final class TrajectoryReplay {
+
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final int nodeCount;
+    private final double quantum;
+    private final boolean rope;
+    private final double[] segmentLengths;
+    private final double[] masses;
+    private final int firstFrame;
+    private final int end;
+    private final int frames;
+    private final int[] x;
+    private final int[] y;
+    private final ChainSnapshot frame = new ChainSnapshot();
+    private long played;
+
+    public TrajectoryReplay(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file.getFileName() + " is too large to replay");
+            }
+            // the mapping outlives the channel
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+        try {
+            if (this.data.getInt() != Trajectory.MAGIC) {
+                throw new IOException(file.getFileName() + " is not a pendulum recording");
+            }
+            final int version = this.data.getShort();
+            if (version != Trajectory.VERSION) {
+                throw new IOException(file.getFileName() + " has unsupported recording version " + version);
+            }
+            this.nodeCount = this.data.getShort();
+            if (this.nodeCount < 2) {
+                throw new IOException(file.getFileName() + " records " + this.nodeCount + " nodes");
+            }
+            this.rope = (this.data.get() & Trajectory.FLAG_ROPE) != 0;
+            this.quantum = this.data.getDouble();
+            this.segmentLengths = new double[this.nodeCount - 1];
+            for (int i = 0; i < this.segmentLengths.length; i++) {
+                this.segmentLengths[i] = this.data.getDouble();
+            }
+            this.masses = new double[this.nodeCount];
+            for (int i = 0; i < this.masses.length; i++) {
+                this.masses[i] = this.data.getDouble();
+            }
+        } catch (BufferUnderflowException ex) {
+            throw new IOException(file.getFileName() + " has a truncated header", ex);
+        }
+        this.firstFrame = this.data.position();
+
+        // walk the length prefixes once; a frame cut short by a crash ends the recording
+        int frames = 0;
+        int position = this.firstFrame;
+        try {
+            while (this.data.hasRemaining()) {
+                final int length = Trajectory.getVarint(this.data);
+                if (length < 0 || length > this.data.remaining()) {
+                    break;
+                }
+                this.data.position(this.data.position() + length);
+                position = this.data.position();
+                frames++;
+            }
+        } catch (BufferUnderflowException ignored) {
+            // a length prefix cut in half; stop at the last whole frame
+        }
+        if (frames == 0) {
+            throw new IOException(file.getFileName() + " has no frames");
+        }
+        this.frames = frames;
+        this.end = position;
+        this.x = new int[this.nodeCount];
+        this.y = new int[this.nodeCount];
+        this.rewind();
+    }
+
+    public Path file() {
+        return this.file;
+    }
+
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    public int frames() {
+        return this.frames;
+    }
+
+    public boolean rope() {
+        return this.rope;
+    }
+
+    public double segmentLength(int index) {
+        return this.segmentLengths[index];
+    }
+
+    public double mass(int nodeIndex) {
+        return this.masses[nodeIndex];
+    }
+
+    ChainSnapshot frame() {
+        return this.frame;
+    }
+
+    // decodes the next tick into frame()
+    void advance() {
+        if (this.data.position() >= this.end) {
+            this.rewind();
+        }
+        final MappedByteBuffer in = this.data;
+        Trajectory.getVarint(in);
+        // restarting the sequence on a loop clears the long-exposure history
+        this.frame.beginReplayFrame(this.nodeCount, this.played++);
+        final int tip = this.nodeCount - 1;
+        int pathX = this.x[tip];
+        int pathY = this.y[tip];
+        for (int i = 0; i < this.nodeCount; i++) {
+            this.x[i] += Trajectory.getVarint(in);
+            this.y[i] += Trajectory.getVarint(in);
+            this.frame.replayNode(i, this.x[i] * this.quantum, this.y[i] * this.quantum);
+        }
+        final int pathCount = Trajectory.getVarint(in);
+        for (int i = 0; i < pathCount; i++) {
+            pathX += Trajectory.getVarint(in);
+            pathY += Trajectory.getVarint(in);
+            this.frame.replayPathPoint(pathX * this.quantum, pathY * this.quantum);
+        }
+    }
+
+    private void rewind() {
+        this.data.position(this.firstFrame);
+        Arrays.fill(this.x, 0);
+        Arrays.fill(this.y, 0);
+        this.played = 0L;
+    }
+}
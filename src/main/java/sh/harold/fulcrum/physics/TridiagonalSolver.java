@@ -0,0 +1,80 @@
+package sh.harold.fulcrum.physics;
+
+// One Newton step on all rod constraints at once: J W J^T is tridiagonal for a chain, so Thomas solves it in O(n).
+final class TridiagonalSolver {
+
+    private double[] normalX = new double[0];
+    private double[] normalY = new double[0];
+    private double[] diagonal = new double[0];
+    private double[] upper = new double[0];
+    private double[] lambda = new double[0];
+
+    double solve(ChainState s) {
+        final int rods = s.nodeCount - 1;
+        if (rods <= 0) {
+            return 0.0;
+        }
+        this.ensureCapacity(rods);
+        final double[] posX = s.posX;
+        final double[] posY = s.posY;
+        final double[] invMass = s.invMass;
+        double maxError = 0.0;
+
+        for (int i = 0; i < rods; i++) {
+            final double dx = posX[i + 1] - posX[i];
+            final double dy = posY[i + 1] - posY[i];
+            final double dist = Math.sqrt(dx * dx + dy * dy);
+            final double wSum = invMass[i] + invMass[i + 1];
+            if (dist < 1e-9 || wSum == 0.0) {
+                // decouple the rod so the system stays solvable with lambda = 0
+                this.normalX[i] = 0.0;
+                this.normalY[i] = 0.0;
+                this.diagonal[i] = 1.0;
+                this.lambda[i] = 0.0;
+                continue;
+            }
+            final double error = dist - s.segmentLength[i];
+            maxError = Math.max(maxError, Math.abs(error));
+            this.normalX[i] = dx / dist;
+            this.normalY[i] = dy / dist;
+            this.diagonal[i] = wSum;
+            this.lambda[i] = -error;
+        }
+        for (int i = 0; i < rods - 1; i++) {
+            final double dot = this.normalX[i] * this.normalX[i + 1] + this.normalY[i] * this.normalY[i + 1];
+            this.upper[i] = -invMass[i + 1] * dot;
+        }
+
+        // forward sweep; the matrix is symmetric so the lower band is upper[i - 1]
+        for (int i = 1; i < rods; i++) {
+            final double factor = this.upper[i - 1] / this.diagonal[i - 1];
+            this.diagonal[i] -= factor * this.upper[i - 1];
+            this.lambda[i] -= factor * this.lambda[i - 1];
+        }
+        this.lambda[rods - 1] /= this.diagonal[rods - 1];
+        for (int i = rods - 2; i >= 0; i--) {
+            this.lambda[i] = (this.lambda[i] - this.upper[i] * this.lambda[i + 1]) / this.diagonal[i];
+        }
+
+        for (int i = 0; i < rods; i++) {
+            final double lx = this.normalX[i] * this.lambda[i];
+            final double ly = this.normalY[i] * this.lambda[i];
+            posX[i] -= invMass[i] * lx;
+            posY[i] -= invMass[i] * ly;
+            posX[i + 1] += invMass[i + 1] * lx;
+            posY[i + 1] += invMass[i + 1] * ly;
+        }
+        return maxError;
+    }
+
+    private void ensureCapacity(int rods) {
+        if (this.diagonal.length >= rods) {
+            return;
+        }
+        this.normalX = new double[rods];
+        this.normalY = new double[rods];
+        this.diagonal = new double[rods];
+        this.upper = new double[rods];
+        this.lambda = new double[rods];
+    }
+}
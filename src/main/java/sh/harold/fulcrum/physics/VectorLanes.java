@@ -0,0 +1,191 @@
+package sh.harold.fulcrum.physics;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import sh.harold.fulcrum.jfr.PhysicsStepEvent;
+
+// Same Verlet/Gauss-Seidel sequence as PendulumChain.advance, one chain per lane.
+// Every arithmetic step mirrors the scalar expression order so lanes stay bit-identical to it.
+final class VectorLanes {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final int[] revisions = new int[SPECIES.length()];
+    private final double[] gravityStep = new double[SPECIES.length()];
+    private final double[] dragFactor = new double[SPECIES.length()];
+    private final double[] tipX = new double[TipPath.CAPACITY * SPECIES.length()];
+    private final double[] tipY = new double[TipPath.CAPACITY * SPECIES.length()];
+    private double[] posX = new double[0];
+    private double[] posY = new double[0];
+    private double[] prevX = new double[0];
+    private double[] prevY = new double[0];
+    private double[] invMass = new double[0];
+    private double[] restLength = new double[0];
+
+    static int width() {
+        return SPECIES.length();
+    }
+
+    void step(PendulumChain[] chains, int from, double dtTickSeconds) {
+        final int lanes = SPECIES.length();
+        final PendulumChain lead = chains[from];
+        final int nodes = lead.state().nodeCount;
+        final int substeps = lead.effectiveSubsteps();
+        final int iterations = lead.effectiveIterations();
+        final double dtSub = dtTickSeconds / substeps;
+        final PhysicsStepEvent event = new PhysicsStepEvent();
+        event.begin();
+        final long started = System.nanoTime();
+        this.ensureCapacity(nodes * lanes);
+
+        for (int lane = 0; lane < lanes; lane++) {
+            final PendulumChain chain = chains[from + lane];
+            synchronized (chain.solverLock()) {
+                chain.matchSubstep(dtSub);
+                this.gather(chain.state(), nodes, lane);
+            }
+            this.gravityStep[lane] = -chain.gravity() * dtSub * dtSub;
+            this.dragFactor[lane] = Math.max(0.0, 1.0 - chain.drag() * dtSub);
+        }
+
+        final DoubleVector gravity = DoubleVector.fromArray(SPECIES, this.gravityStep, 0);
+        final DoubleVector drag = DoubleVector.fromArray(SPECIES, this.dragFactor, 0);
+        for (int sub = 0; sub < substeps; sub++) {
+            this.integrate(nodes, gravity);
+            for (int i = 0; i < iterations; i++) {
+                this.satisfyConstraints(nodes);
+            }
+            this.applyDrag(nodes, drag);
+            // the tip row is already lane-major, so a substep's tips are one contiguous copy
+            final int slot = (sub & (TipPath.CAPACITY - 1)) * lanes;
+            System.arraycopy(this.posX, (nodes - 1) * lanes, this.tipX, slot, lanes);
+            System.arraycopy(this.posY, (nodes - 1) * lanes, this.tipY, slot, lanes);
+        }
+
+        for (int lane = 0; lane < lanes; lane++) {
+            final PendulumChain chain = chains[from + lane];
+            synchronized (chain.solverLock()) {
+                final ChainState state = chain.state();
+                // a pose or shape change landed mid-step; keep it rather than our stale result
+                if (state.revision != this.revisions[lane] || state.nodeCount != nodes) {
+                    continue;
+                }
+                this.scatter(state, nodes, lane);
+                for (int sub = Math.max(0, substeps - TipPath.CAPACITY); sub < substeps; sub++) {
+                    final int at = (sub & (TipPath.CAPACITY - 1)) * lanes + lane;
+                    state.tipPath.append(this.tipX[at], this.tipY[at]);
+                }
+                chain.recordStep(substeps, substeps * iterations, dtSub);
+                chain.publishStep();
+            }
+        }
+        // the lanes ran as one, so each chain is charged an equal share
+        final long share = (System.nanoTime() - started) / lanes;
+        for (int lane = 0; lane < lanes; lane++) {
+            chains[from + lane].stats().recordStep(share);
+        }
+        event.complete(lead.id(), nodes - 1, substeps, substeps * iterations, lanes, false);
+    }
+
+    private void gather(ChainState state, int nodes, int lane) {
+        final int lanes = SPECIES.length();
+        final boolean valid = state.nodeCount == nodes;
+        this.revisions[lane] = valid ? state.revision : -1;
+        for (int i = 0; i < nodes; i++) {
+            final int at = i * lanes + lane;
+            this.posX[at] = valid ? state.posX[i] : 0.0;
+            this.posY[at] = valid ? state.posY[i] : 0.0;
+            this.prevX[at] = valid ? state.prevX[i] : 0.0;
+            this.prevY[at] = valid ? state.prevY[i] : 0.0;
+            this.invMass[at] = valid ? state.invMass[i] : 0.0;
+            if (i < nodes - 1) {
+                this.restLength[at] = valid ? state.segmentLength[i] : 0.0;
+            }
+        }
+    }
+
+    private void scatter(ChainState state, int nodes, int lane) {
+        final int lanes = SPECIES.length();
+        for (int i = 0; i < nodes; i++) {
+            final int at = i * lanes + lane;
+            state.posX[i] = this.posX[at];
+            state.posY[i] = this.posY[at];
+            state.prevX[i] = this.prevX[at];
+            state.prevY[i] = this.prevY[at];
+        }
+    }
+
+    private void integrate(int nodes, DoubleVector gravity) {
+        final int lanes = SPECIES.length();
+        for (int i = 0; i < nodes; i++) {
+            final int at = i * lanes;
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, this.posX, at);
+            final DoubleVector y = DoubleVector.fromArray(SPECIES, this.posY, at);
+            final DoubleVector px = DoubleVector.fromArray(SPECIES, this.prevX, at);
+            final DoubleVector py = DoubleVector.fromArray(SPECIES, this.prevY, at);
+            final VectorMask<Double> movable = DoubleVector.fromArray(SPECIES, this.invMass, at).compare(VectorOperators.NE, 0.0);
+            x.blend(x.add(x.sub(px)), movable).intoArray(this.posX, at);
+            y.blend(y.add(y.sub(py)).add(gravity), movable).intoArray(this.posY, at);
+            px.blend(x, movable).intoArray(this.prevX, at);
+            py.blend(y, movable).intoArray(this.prevY, at);
+        }
+    }
+
+    private void satisfyConstraints(int nodes) {
+        final int lanes = SPECIES.length();
+        final DoubleVector zero = DoubleVector.zero(SPECIES);
+        for (int i = 0; i < nodes - 1; i++) {
+            final int a = i * lanes;
+            final int b = a + lanes;
+            final DoubleVector xa = DoubleVector.fromArray(SPECIES, this.posX, a);
+            final DoubleVector ya = DoubleVector.fromArray(SPECIES, this.posY, a);
+            final DoubleVector xb = DoubleVector.fromArray(SPECIES, this.posX, b);
+            final DoubleVector yb = DoubleVector.fromArray(SPECIES, this.posY, b);
+            final DoubleVector w1 = DoubleVector.fromArray(SPECIES, this.invMass, a);
+            final DoubleVector w2 = DoubleVector.fromArray(SPECIES, this.invMass, b);
+            final DoubleVector rest = DoubleVector.fromArray(SPECIES, this.restLength, a);
+
+            final DoubleVector dx = xb.sub(xa);
+            final DoubleVector dy = yb.sub(ya);
+            final DoubleVector dist = dx.mul(dx).add(dy.mul(dy)).sqrt();
+            final DoubleVector wSum = w1.add(w2);
+            final VectorMask<Double> solvable = dist.compare(VectorOperators.GE, 1e-9)
+                .and(wSum.compare(VectorOperators.NE, 0.0));
+            final DoubleVector k = zero.blend(dist.sub(rest).div(dist.mul(wSum)), solvable);
+            final DoubleVector cx = dx.mul(k);
+            final DoubleVector cy = dy.mul(k);
+
+            xa.add(cx.mul(w1)).intoArray(this.posX, a);
+            ya.add(cy.mul(w1)).intoArray(this.posY, a);
+            xb.sub(cx.mul(w2)).intoArray(this.posX, b);
+            yb.sub(cy.mul(w2)).intoArray(this.posY, b);
+        }
+    }
+
+    private void applyDrag(int nodes, DoubleVector factor) {
+        final int lanes = SPECIES.length();
+        for (int i = 1; i < nodes; i++) {
+            final int at = i * lanes;
+            final DoubleVector x = DoubleVector.fromArray(SPECIES, this.posX, at);
+            final DoubleVector y = DoubleVector.fromArray(SPECIES, this.posY, at);
+            final DoubleVector px = DoubleVector.fromArray(SPECIES, this.prevX, at);
+            final DoubleVector py = DoubleVector.fromArray(SPECIES, this.prevY, at);
+            x.sub(x.sub(px).mul(factor)).intoArray(this.prevX, at);
+            y.sub(y.sub(py).mul(factor)).intoArray(this.prevY, at);
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (this.posX.length >= size) {
+            return;
+        }
+        this.posX = new double[size];
+        this.posY = new double[size];
+        this.prevX = new double[size];
+        this.prevY = new double[size];
+        this.invMass = new double[size];
+        this.restLength = new double[size];
+    }
+}
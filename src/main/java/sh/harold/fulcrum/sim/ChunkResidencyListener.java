@@ -0,0 +1,26 @@
+package sh.harold.fulcrum.sim;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+public final class ChunkResidencyListener implements Listener {
+
+    private final PendulumManager manager;
+
+    public ChunkResidencyListener(PendulumManager manager) {
+        this.manager = manager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        this.manager.chunkLoaded(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        this.manager.chunkUnloaded(event.getChunk());
+    }
+}
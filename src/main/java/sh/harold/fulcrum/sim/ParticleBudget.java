@@ -0,0 +1,125 @@
+package sh.harold.fulcrum.sim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import sh.harold.fulcrum.physics.PendulumChain;
+
+// Weighted max-min split of one tick's particles: chains asking for less than their share get all of it,
+// and whatever they leave is divided again among the rest by weight. Allowances are handed out from the
+// demand each chain reported on its last frame, so a chain that just came into view waits one tick. A resting
+// chain only redraws once every resting period, so it claims its demand spread over that period and spends the
+// whole period's allowance on the frame it draws. Chains asking for nothing (unseen) split whatever is left over.
+final class ParticleBudget {
+
+    private static final double PROXIMITY_FALLOFF = 16.0;
+    private static final double MIN_WEIGHT = 1e-3;
+
+    private final int perTick;
+    private final List<PendulumChain> open = new ArrayList<>();
+    private final List<PendulumChain> idle = new ArrayList<>();
+    private double[] weights = new double[16];
+    private int[] claims = new int[16];
+    private int allocatedLastTick;
+
+    ParticleBudget(int perTick) {
+        this.perTick = perTick;
+    }
+
+    int perTick() {
+        return this.perTick;
+    }
+
+    int allocatedLastTick() {
+        return this.allocatedLastTick;
+    }
+
+    void allocate(Collection<PendulumChain> chains) {
+        this.open.clear();
+        this.idle.clear();
+        for (final PendulumChain chain : chains) {
+            if (chain.particleDemand() > 0) {
+                this.open.add(chain);
+            } else {
+                this.idle.add(chain);
+            }
+        }
+        if (this.weights.length < this.open.size()) {
+            this.weights = new double[this.open.size() * 2];
+            this.claims = new int[this.open.size() * 2];
+        }
+        for (int i = 0; i < this.open.size(); i++) {
+            final PendulumChain chain = this.open.get(i);
+            this.weights[i] = weight(chain);
+            this.claims[i] = claim(chain);
+        }
+
+        int remaining = this.perTick;
+        boolean settled = false;
+        while (!settled && !this.open.isEmpty()) {
+            double totalWeight = 0.0;
+            for (int i = 0; i < this.open.size(); i++) {
+                totalWeight += this.weights[i];
+            }
+            settled = true;
+            int kept = 0;
+            int granted = 0;
+            for (int i = 0; i < this.open.size(); i++) {
+                final PendulumChain chain = this.open.get(i);
+                final double share = remaining * this.weights[i] / totalWeight;
+                final int claim = this.claims[i];
+                if (claim <= share) {
+                    grant(chain, claim);
+                    granted += claim;
+                    settled = false;
+                } else {
+                    this.weights[kept] = this.weights[i];
+                    this.claims[kept] = claim;
+                    this.open.set(kept++, chain);
+                }
+            }
+            remaining -= granted;
+            this.open.subList(kept, this.open.size()).clear();
+        }
+        // nobody left fits inside their share; split what remains by weight and stop
+        double totalWeight = 0.0;
+        for (int i = 0; i < this.open.size(); i++) {
+            totalWeight += this.weights[i];
+        }
+        int split = 0;
+        for (int i = 0; i < this.open.size(); i++) {
+            final int allowance = (int) (remaining * this.weights[i] / totalWeight);
+            grant(this.open.get(i), allowance);
+            split += allowance;
+        }
+        this.allocatedLastTick = this.perTick - remaining + split;
+        this.open.clear();
+
+        final int spare = this.idle.isEmpty() ? 0 : (this.perTick - this.allocatedLastTick) / this.idle.size();
+        for (final PendulumChain chain : this.idle) {
+            chain.particleAllowance(spare);
+        }
+        this.idle.clear();
+    }
+
+    private static boolean resting(PendulumChain chain) {
+        return chain.resting() && !chain.tapeRunning();
+    }
+
+    private static int claim(PendulumChain chain) {
+        final int demand = chain.particleDemand();
+        return resting(chain) ? (int) Math.ceil(demand / (double) RegionTickGroup.RESTING_PERIOD) : demand;
+    }
+
+    private static void grant(PendulumChain chain, int perTick) {
+        // a resting chain banks its per-tick share for the one frame it draws each period
+        final int allowance = resting(chain) ? (int) Math.min(chain.particleDemand(), perTick * RegionTickGroup.RESTING_PERIOD) : perTick;
+        chain.particleAllowance(allowance);
+    }
+
+    private static double weight(PendulumChain chain) {
+        // each step of priority doubles the share; closer viewers see more of it
+        final double proximity = 1.0 / (1.0 + chain.nearestViewerDistance() / PROXIMITY_FALLOFF);
+        return Math.max(MIN_WEIGHT, Math.pow(2.0, chain.priority()) * proximity);
+    }
+}
@@ -1,96 +1,430 @@
 package sh.harold.fulcrum.sim;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
 import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import sh.harold.fulcrum.physics.BatchStepper;
+import sh.harold.fulcrum.physics.ChainCodec;
+import sh.harold.fulcrum.physics.ChainListener;
 import sh.harold.fulcrum.physics.PendulumChain;
+import sh.harold.fulcrum.physics.RollingHistogram;
 import sh.harold.fulcrum.physics.ParticleStyle;
 import sh.harold.fulcrum.physics.TipTrailStyle;
+import sh.harold.fulcrum.physics.TrajectoryRecorder;
+import sh.harold.fulcrum.physics.TrajectoryReplay;
 
-public final class PendulumManager {
+public final class PendulumManager implements ChainListener {
+
+    private static final double TICK_SECONDS = 0.05;
+    private static final String RECORDING_SUFFIX = ".pndr";
+    private static final DateTimeFormatter RECORDING_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
     private final Plugin plugin;
+    private final PendulumSettings settings;
+    private final ExecutorService physicsPool;
     private final Map<Integer, PendulumChain> chainsById = new ConcurrentHashMap<>();
-    private final Map<Integer, ScheduledTask> scheduledTasks = new ConcurrentHashMap<>();
+    private final Map<RegionKey, RegionTickGroup> groups = new ConcurrentHashMap<>();
+    private final Map<Integer, RegionTickGroup> groupByChain = new ConcurrentHashMap<>();
     private final AtomicInteger nextId = new AtomicInteger(1);
+    private final RollingHistogram groupTickCost = new RollingHistogram(400);
+    private final QualityGovernor governor;
+    private final ParticleBudget particleBudget;
+    private final PendulumStore store;
+    private final Executor io;
+    // saved chains whose anchor chunk hasn't loaded since startup
+    private final Map<RegionKey, List<PendulumStore.Entry>> pending = new ConcurrentHashMap<>();
+    // records that failed to decode; written back untouched so a later version can still read them
+    private final List<PendulumStore.Entry> undecodable = new CopyOnWriteArrayList<>();
+    // nothing is saved until the old file has been read or set aside, or the save would drop what it held
+    private volatile boolean loaded;
+    private ScheduledTask governorTask;
+    private ScheduledTask budgetTask;
+    private volatile ScheduledTask saveTask;
 
-    public PendulumManager(Plugin plugin) {
+    public PendulumManager(Plugin plugin, PendulumSettings settings) {
         this.plugin = plugin;
+        this.settings = settings;
+        this.physicsPool = createPhysicsPool(settings);
+        if (settings.vectorBatching() && !BatchStepper.available()) {
+            plugin.getLogger().warning("vector-batching is enabled but jdk.incubator.vector is unavailable; add --add-modules=jdk.incubator.vector to the server flags. Using the scalar solver.");
+        }
+        if (settings.vectorBatching() && this.physicsPool != null) {
+            plugin.getLogger().warning("vector-batching is ignored while async-physics is enabled; each chain steps on its own pool task. Disable one of them.");
+        }
+        this.governor = new QualityGovernor(settings.msptBudget(), Bukkit::getAverageTickTime);
+        if (settings.governorEnabled()) {
+            this.governorTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(
+                plugin,
+                task -> this.governor.update(this.chainsById.values()),
+                QualityGovernor.CHECK_PERIOD,
+                QualityGovernor.CHECK_PERIOD
+            );
+        }
+        this.particleBudget = new ParticleBudget(settings.particleBudget());
+        if (settings.particleBudget() > 0) {
+            this.budgetTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(
+                plugin,
+                task -> this.particleBudget.allocate(this.chainsById.values()),
+                1L,
+                1L
+            );
+        }
+        this.store = new PendulumStore(plugin.getDataFolder().toPath());
+        this.io = task -> Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+    }
+
+    public PendulumSettings settings() {
+        return this.settings;
     }
 
     public Collection<PendulumChain> chains() {
         return this.chainsById.values();
     }
 
+    public RollingHistogram groupTickCost() {
+        return this.groupTickCost;
+    }
+
+    public int groupCount() {
+        return this.groups.size();
+    }
+
+    public int governorPressure() {
+        return this.governor.pressure();
+    }
+
+    public int governorMaxPressure() {
+        return this.governor.maxPressure();
+    }
+
+    public int particleBudget() {
+        return this.particleBudget.perTick();
+    }
+
+    public int particlesAllocated() {
+        return this.particleBudget.allocatedLastTick();
+    }
+
     public Optional<PendulumChain> get(int id) {
         return Optional.ofNullable(this.chainsById.get(id));
     }
 
     public int createPendulum(Location anchor) {
         final int id = this.nextId.getAndIncrement();
-        final PendulumChain chain = new PendulumChain(id, anchor, this.plugin);
-        this.chainsById.put(id, chain);
-        this.scheduleChain(chain);
+        this.register(new PendulumChain(id, anchor, this.plugin));
         return id;
     }
 
-    public void remove(int id) {
-        final ScheduledTask task = this.scheduledTasks.remove(id);
-        if (task != null) {
-            task.cancel();
+    private void register(PendulumChain chain) {
+        this.chainsById.put(chain.id(), chain);
+        chain.listener(this);
+        chain.viewRange(this.settings.viewRadius(), this.settings.viewerRefreshTicks());
+        chain.lodTiers(this.settings.lodTiers());
+        if (this.budgetTask != null) {
+            // nothing until the budget has seen what it asks for
+            chain.particleAllowance(0);
         }
+        this.assignGroup(chain);
+    }
+
+    // reads the save off-thread and restores chains as their chunks load; enabling never waits on the disk
+    public void restoreSaved() {
+        if (!this.settings.persistenceEnabled()) {
+            return;
+        }
+        Bukkit.getAsyncScheduler().runNow(this.plugin, task -> {
+            List<PendulumStore.Entry> entries;
+            try {
+                entries = this.store.read();
+            } catch (IOException ex) {
+                try {
+                    this.store.quarantine();
+                } catch (IOException moveFailure) {
+                    ex.addSuppressed(moveFailure);
+                    this.plugin.getLogger().log(Level.SEVERE, "Could not read saved pendulums or move them aside; saving is off until the file is fixed", ex);
+                    return;
+                }
+                this.plugin.getLogger().log(Level.WARNING, "Could not read saved pendulums; moved to " + this.store.quarantineFile() + " and starting empty", ex);
+                entries = List.of();
+            }
+            int maxId = 0;
+            for (final PendulumStore.Entry entry : entries) {
+                this.pending.computeIfAbsent(entry.key(), key -> new ArrayList<>()).add(entry);
+                maxId = Math.max(maxId, entry.id());
+            }
+            this.nextId.accumulateAndGet(maxId + 1, Math::max);
+            this.loaded = true;
+            for (final RegionKey key : List.copyOf(this.pending.keySet())) {
+                final World world = Bukkit.getWorld(key.worldId());
+                if (world != null && world.isChunkLoaded(key.chunkX(), key.chunkZ())) {
+                    Bukkit.getRegionScheduler().execute(this.plugin, world, key.chunkX(), key.chunkZ(), () -> this.restoreRegion(key));
+                }
+            }
+            this.saveTask = Bukkit.getAsyncScheduler().runAtFixedRate(
+                this.plugin,
+                repeat -> this.save(),
+                this.settings.saveIntervalSeconds(),
+                this.settings.saveIntervalSeconds(),
+                TimeUnit.SECONDS
+            );
+        });
+    }
+
+    // runs on the chunk's region thread
+    private void restoreRegion(RegionKey key) {
+        final List<PendulumStore.Entry> entries = this.pending.remove(key);
+        if (entries == null) {
+            return;
+        }
+        final World world = Bukkit.getWorld(key.worldId());
+        if (world == null) {
+            this.pending.put(key, entries);
+            return;
+        }
+        for (final PendulumStore.Entry entry : entries) {
+            // a pendulum placed before the save finished loading may already hold the id
+            final int id = this.chainsById.containsKey(entry.id()) ? this.nextId.getAndIncrement() : entry.id();
+            final PendulumChain chain = new PendulumChain(id, new Location(world, entry.x(), entry.y(), entry.z()), this.plugin);
+            try {
+                ChainCodec.decode(entry.body(), entry.version(), chain);
+            } catch (IOException | RuntimeException ex) {
+                this.plugin.getLogger().log(Level.WARNING, "Skipping saved pendulum #" + entry.id() + "; its record is kept as it was", ex);
+                this.undecodable.add(entry);
+                continue;
+            }
+            this.register(chain);
+        }
+    }
+
+    private List<PendulumStore.Entry> capture() {
+        final List<PendulumStore.Entry> entries = new ArrayList<>();
+        for (final PendulumChain chain : this.chainsById.values()) {
+            if (!chain.configured()) {
+                continue;
+            }
+            final Location anchor = chain.anchor();
+            entries.add(new PendulumStore.Entry(
+                chain.id(),
+                anchor.getWorld().getUID(),
+                anchor.getX(),
+                anchor.getY(),
+                anchor.getZ(),
+                ChainCodec.VERSION,
+                ChainCodec.encode(chain)
+            ));
+        }
+        // chunks nobody has visited yet keep their records as they were read
+        this.pending.values().forEach(entries::addAll);
+        entries.addAll(this.undecodable);
+        return entries;
+    }
+
+    private void save() {
+        if (!this.loaded) {
+            return;
+        }
+        try {
+            this.store.write(this::capture);
+        } catch (IOException | RuntimeException ex) {
+            this.plugin.getLogger().log(Level.WARNING, "Could not save pendulums", ex);
+        }
+    }
+
+    public void remove(int id) {
         final PendulumChain chain = this.chainsById.remove(id);
         if (chain != null) {
+            this.stopRecording(chain);
+            chain.listener(null);
+            this.releaseGroup(chain);
             chain.cleanupEntities();
         }
     }
 
-    public void tickAll(double dtTick, World world) {
+    public void shutdown() {
+        if (this.saveTask != null) {
+            this.saveTask.cancel();
+            this.saveTask = null;
+        }
+        if (this.settings.persistenceEnabled()) {
+            this.save();
+        }
+        if (this.governorTask != null) {
+            this.governorTask.cancel();
+            this.governorTask = null;
+        }
+        if (this.budgetTask != null) {
+            this.budgetTask.cancel();
+            this.budgetTask = null;
+        }
+        this.groups.values().forEach(RegionTickGroup::stop);
+        this.groups.clear();
+        this.groupByChain.clear();
         for (final PendulumChain chain : this.chainsById.values()) {
-            final Location anchor = chain.anchor();
-            if (anchor.getWorld() != world) {
-                continue;
+            final TrajectoryRecorder recorder = chain.recorder();
+            if (recorder != null) {
+                chain.recorder(null);
+                recorder.closeNow();
             }
-            if (!world.isChunkLoaded(anchor.getBlockX() >> 4, anchor.getBlockZ() >> 4)) {
-                continue;
+        }
+        if (this.physicsPool != null) {
+            this.physicsPool.shutdownNow();
+        }
+    }
+
+    public Path recordingsFolder() {
+        return this.plugin.getDataFolder().toPath().resolve("recordings");
+    }
+
+    // null for anything that would land outside the recordings folder
+    public Path recordingFile(String name) {
+        final String fileName = name.endsWith(RECORDING_SUFFIX) ? name : name + RECORDING_SUFFIX;
+        final Path folder = this.recordingsFolder().normalize();
+        final Path file = folder.resolve(fileName).normalize();
+        return folder.equals(file.getParent()) ? file : null;
+    }
+
+    public TrajectoryRecorder startRecording(PendulumChain chain) {
+        final String name = "pendulum-" + chain.id() + "-" + RECORDING_STAMP.format(LocalDateTime.now());
+        final TrajectoryRecorder recorder = new TrajectoryRecorder(this.recordingFile(name), this.io, chain);
+        final TrajectoryRecorder previous = chain.recorder();
+        chain.recorder(recorder);
+        if (previous != null) {
+            previous.close();
+        }
+        return recorder;
+    }
+
+    public TrajectoryRecorder stopRecording(PendulumChain chain) {
+        final TrajectoryRecorder recorder = chain.recorder();
+        if (recorder != null) {
+            chain.recorder(null);
+            recorder.close();
+        }
+        return recorder;
+    }
+
+    // maps the file off-thread, then swaps the replay in on the chain's own region
+    public CompletableFuture<TrajectoryReplay> startReplay(PendulumChain chain, Path file) {
+        final CompletableFuture<TrajectoryReplay> result = new CompletableFuture<>();
+        this.io.execute(() -> {
+            final TrajectoryReplay replay;
+            try {
+                replay = new TrajectoryReplay(file);
+            } catch (IOException ex) {
+                result.completeExceptionally(ex);
+                return;
             }
-            chain.stepTick(dtTick);
-            chain.render(world);
+            final Location anchor = chain.anchor();
+            Bukkit.getRegionScheduler().execute(this.plugin, anchor.getWorld(), anchor.getBlockX() >> 4, anchor.getBlockZ() >> 4, () -> {
+                chain.replay(replay);
+                result.complete(replay);
+            });
+        });
+        return result;
+    }
+
+    @Override
+    public synchronized void anchorMoved(PendulumChain chain) {
+        if (!this.chainsById.containsKey(chain.id())) {
+            return;
         }
+        final RegionTickGroup current = this.groupByChain.get(chain.id());
+        if (current != null && current.key().equals(RegionKey.of(chain.anchor()))) {
+            return;
+        }
+        this.releaseGroup(chain);
+        this.assignGroup(chain);
     }
 
-    private void scheduleChain(PendulumChain chain) {
+    public void chunkLoaded(Chunk chunk) {
+        final RegionKey key = new RegionKey(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+        if (!this.pending.isEmpty()) {
+            this.restoreRegion(key);
+        }
+        final RegionTickGroup group = this.groups.get(key);
+        if (group != null) {
+            group.resume();
+        }
+    }
+
+    public void chunkUnloaded(Chunk chunk) {
+        final RegionTickGroup group = this.groups.get(new RegionKey(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ()));
+        if (group != null) {
+            group.suspend();
+        }
+    }
+
+    @Override
+    public void woke(PendulumChain chain) {
+        final RegionTickGroup group = this.groupByChain.get(chain.id());
+        if (group != null) {
+            group.wake();
+        }
+    }
+
+    private synchronized void assignGroup(PendulumChain chain) {
         final Location anchor = chain.anchor();
-        final ScheduledTask old = this.scheduledTasks.remove(chain.id());
-        if (old != null) {
-            old.cancel();
+        final RegionKey key = RegionKey.of(anchor);
+        RegionTickGroup group = this.groups.get(key);
+        if (group == null) {
+            group = new RegionTickGroup(key, anchor.getWorld(), this.physicsPool, this.createBatchStepper(), this.settings.holdChunkTickets(), this.groupTickCost);
+            this.groups.put(key, group);
+            group.start(this.plugin, TICK_SECONDS);
         }
+        group.add(chain);
+        this.groupByChain.put(chain.id(), group);
+        group.wake();
+    }
 
-        final ScheduledTask task = Bukkit.getRegionScheduler().runAtFixedRate(
-            this.plugin,
-            anchor,
-            scheduledTask -> {
-                final World world = anchor.getWorld();
-                if (world == null) {
-                    return;
-                }
-                if (!world.isChunkLoaded(anchor.getBlockX() >> 4, anchor.getBlockZ() >> 4)) {
-                    return;
-                }
-                chain.stepTick(0.05);
-                chain.render(world);
-            },
-            1L,
-            1L
-        );
-        this.scheduledTasks.put(chain.id(), task);
+    private synchronized void releaseGroup(PendulumChain chain) {
+        final RegionTickGroup group = this.groupByChain.remove(chain.id());
+        if (group == null) {
+            return;
+        }
+        group.remove(chain);
+        if (group.isEmpty()) {
+            group.stop();
+            this.groups.remove(group.key());
+        }
+    }
+
+    private BatchStepper createBatchStepper() {
+        if (!this.settings.vectorBatching() || !BatchStepper.available() || this.physicsPool != null) {
+            return null;
+        }
+        return BatchStepper.create();
+    }
+
+    private static ExecutorService createPhysicsPool(PendulumSettings settings) {
+        if (!settings.asyncPhysics()) {
+            return null;
+        }
+        if (settings.physicsThreads() == 0) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return new ForkJoinPool(settings.physicsThreads());
     }
 
     public void configureButterfly(int idA, int idB) {
@@ -0,0 +1,61 @@
+package sh.harold.fulcrum.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.configuration.ConfigurationSection;
+import sh.harold.fulcrum.physics.LodTier;
+
+public record PendulumSettings(
+    boolean asyncPhysics,
+    int physicsThreads,
+    boolean vectorBatching,
+    double viewRadius,
+    int viewerRefreshTicks,
+    List<LodTier> lodTiers,
+    int particleBudget,
+    boolean holdChunkTickets,
+    boolean governorEnabled,
+    double msptBudget,
+    boolean persistenceEnabled,
+    long saveIntervalSeconds
+) {
+
+    public static PendulumSettings from(ConfigurationSection config) {
+        return new PendulumSettings(
+            config.getBoolean("async-physics.enabled", false),
+            Math.max(0, config.getInt("async-physics.threads", 0)),
+            config.getBoolean("vector-batching.enabled", false),
+            Math.max(1.0, config.getDouble("rendering.view-radius", 32.0)),
+            Math.max(1, config.getInt("rendering.viewer-refresh-ticks", 10)),
+            readLodTiers(config.getMapList("rendering.lod-tiers")),
+            Math.max(0, config.getInt("rendering.particle-budget", 4000)),
+            config.getBoolean("chunks.hold-tickets", false),
+            config.getBoolean("governor.enabled", true),
+            Math.max(1.0, config.getDouble("governor.mspt-budget", 40.0)),
+            config.getBoolean("persistence.enabled", true),
+            Math.max(10L, config.getLong("persistence.save-interval-seconds", 300L))
+        );
+    }
+
+    private static List<LodTier> readLodTiers(List<Map<?, ?>> entries) {
+        if (entries.isEmpty()) {
+            return LodTier.DEFAULTS;
+        }
+        final List<LodTier> tiers = new ArrayList<>();
+        for (final Map<?, ?> entry : entries) {
+            tiers.add(new LodTier(
+                number(entry, "max-distance", Double.POSITIVE_INFINITY),
+                number(entry, "rod-step", 0.15),
+                (int) number(entry, "node-particles", 3),
+                !Boolean.FALSE.equals(entry.get("tip-trail")),
+                number(entry, "trail-step", 0.05)
+            ));
+        }
+        return List.copyOf(tiers);
+    }
+
+    private static double number(Map<?, ?> entry, String key, double fallback) {
+        return entry.get(key) instanceof Number value ? value.doubleValue() : fallback;
+    }
+}
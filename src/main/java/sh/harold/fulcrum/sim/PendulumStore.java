@@ -0,0 +1,110 @@
+package sh.harold.fulcrum.sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// pendulums.dat: a header, then one record per chain holding its id, anchor and a ChainCodec body tagged with
+// the codec version that wrote it. Writes go to a temp file in the same folder and are moved over the old
+// file in one step, so a crash mid-save leaves the previous save intact.
+final class PendulumStore {
+
+    private static final int MAGIC = 0x504E444C;
+    private static final int FORMAT = 1;
+
+    private final Path file;
+    private final Path quarantine;
+
+    PendulumStore(Path folder) {
+        this.file = folder.resolve("pendulums.dat");
+        this.quarantine = folder.resolve("pendulums.dat.bad");
+    }
+
+    Path quarantineFile() {
+        return this.quarantine;
+    }
+
+    record Entry(int id, UUID world, double x, double y, double z, int version, byte[] body) {
+
+        RegionKey key() {
+            return new RegionKey(this.world, (int) Math.floor(this.x) >> 4, (int) Math.floor(this.z) >> 4);
+        }
+    }
+
+    List<Entry> read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(this.file + " is not a pendulum save");
+            }
+            final int format = in.readUnsignedShort();
+            if (format != FORMAT) {
+                throw new IOException(this.file + " has unsupported format " + format);
+            }
+            final int count = in.readInt();
+            final List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final int id = in.readInt();
+                final UUID world = new UUID(in.readLong(), in.readLong());
+                final double x = in.readDouble();
+                final double y = in.readDouble();
+                final double z = in.readDouble();
+                final int version = in.readUnsignedShort();
+                final byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                entries.add(new Entry(id, world, x, y, z, version, body));
+            }
+            return entries;
+        } catch (NoSuchFileException ex) {
+            return List.of();
+        }
+    }
+
+    // periodic and shutdown saves can overlap; capturing under the lock means whichever writes last also
+    // captured last, so an older state never lands over a newer one
+    synchronized void write(Supplier<List<Entry>> capture) throws IOException {
+        final List<Entry> entries = capture.get();
+        Files.createDirectories(this.file.getParent());
+        final Path temp = Files.createTempFile(this.file.getParent(), "pendulums", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT);
+                out.writeInt(entries.size());
+                for (final Entry entry : entries) {
+                    out.writeInt(entry.id());
+                    out.writeLong(entry.world().getMostSignificantBits());
+                    out.writeLong(entry.world().getLeastSignificantBits());
+                    out.writeDouble(entry.x());
+                    out.writeDouble(entry.y());
+                    out.writeDouble(entry.z());
+                    out.writeShort(entry.version());
+                    out.writeInt(entry.body().length);
+                    out.write(entry.body());
+                }
+            }
+            try {
+                Files.move(temp, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // a save that could not be read is moved out of the way before anything may overwrite it
+    synchronized void quarantine() throws IOException {
+        Files.move(this.file, this.quarantine, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,84 @@
+package sh.harold.fulcrum.sim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import sh.harold.fulcrum.physics.PendulumChain;
+
+// Pressure rises one notch per check while the server is over its tick budget and falls again once it
+// has been comfortably under for a few checks. Pressure is spread over awake chains least important first:
+// the least important ones are degraded early and hardest, the most important ones last.
+final class QualityGovernor {
+
+    static final long CHECK_PERIOD = 20L;
+
+    private static final int MAX_PRESSURE = 16;
+    private static final double RECOVER_FRACTION = 0.8;
+    private static final int RECOVER_CHECKS = 3;
+    private static final Comparator<PendulumChain> LEAST_IMPORTANT_FIRST = Comparator
+        .comparingInt((PendulumChain chain) -> chain.priority())
+        .thenComparing(PendulumChain::nearestViewerDistance, Comparator.reverseOrder());
+
+    private final double msptBudget;
+    private final DoubleSupplier mspt;
+    private final List<PendulumChain> ranked = new ArrayList<>();
+    private int pressure;
+    private int calmChecks;
+
+    QualityGovernor(double msptBudget, DoubleSupplier mspt) {
+        this.msptBudget = msptBudget;
+        this.mspt = mspt;
+    }
+
+    int pressure() {
+        return this.pressure;
+    }
+
+    int maxPressure() {
+        return MAX_PRESSURE;
+    }
+
+    void update(Collection<PendulumChain> chains) {
+        final double mspt = this.mspt.getAsDouble();
+        if (mspt > this.msptBudget) {
+            this.pressure = Math.min(MAX_PRESSURE, this.pressure + 1);
+            this.calmChecks = 0;
+        } else if (mspt < this.msptBudget * RECOVER_FRACTION && this.pressure > 0) {
+            // back off slowly so a single quiet second doesn't flip everything back to full detail
+            if (++this.calmChecks >= RECOVER_CHECKS) {
+                this.pressure--;
+                this.calmChecks = 0;
+            }
+        } else {
+            this.calmChecks = 0;
+        }
+        this.apply(chains);
+    }
+
+    private void apply(Collection<PendulumChain> chains) {
+        this.ranked.clear();
+        for (final PendulumChain chain : chains) {
+            if (this.pressure == 0 || chain.resting()) {
+                chain.qualityLevel(0);
+            } else {
+                this.ranked.add(chain);
+            }
+        }
+        if (this.ranked.isEmpty()) {
+            return;
+        }
+        this.ranked.sort(LEAST_IMPORTANT_FIRST);
+
+        // at half pressure the least important chain is at the floor and the most important just starts to give
+        final double reach = 2.0 * this.pressure / MAX_PRESSURE;
+        final int count = this.ranked.size();
+        for (int rank = 0; rank < count; rank++) {
+            final double importance = (double) rank / count;
+            final int level = (int) Math.ceil(PendulumChain.MAX_QUALITY_LEVEL * (reach - importance));
+            this.ranked.get(rank).qualityLevel(level);
+        }
+        this.ranked.clear();
+    }
+}
@@ -0,0 +1,11 @@
+package sh.harold.fulcrum.sim;
+
+import java.util.UUID;
+import org.bukkit.Location;
+
+record RegionKey(UUID worldId, int chunkX, int chunkZ) {
+
+    static RegionKey of(Location anchor) {
+        return new RegionKey(anchor.getWorld().getUID(), anchor.getBlockX() >> 4, anchor.getBlockZ() >> 4);
+    }
+}
@@ -0,0 +1,205 @@
+package sh.harold.fulcrum.sim;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import sh.harold.fulcrum.jfr.RegionScheduleEvent;
+import sh.harold.fulcrum.jfr.RegionTickEvent;
+import sh.harold.fulcrum.physics.BatchStepper;
+import sh.harold.fulcrum.physics.PendulumChain;
+import sh.harold.fulcrum.physics.RollingHistogram;
+
+final class RegionTickGroup {
+
+    static final long RESTING_PERIOD = 10L;
+
+    private final RegionKey key;
+    private final World world;
+    private final Executor physicsPool;
+    private final BatchStepper batchStepper;
+    private final boolean holdTicket;
+    private final RollingHistogram tickCost;
+    private final List<PendulumChain> chains = new CopyOnWriteArrayList<>();
+    private Plugin plugin;
+    private double dtTick;
+    private ScheduledTask task;
+    private boolean parked;
+    private boolean suspended;
+    private boolean ticketHeld;
+    private long ticks;
+
+    RegionTickGroup(RegionKey key, World world, Executor physicsPool, BatchStepper batchStepper, boolean holdTicket, RollingHistogram tickCost) {
+        this.key = key;
+        this.world = world;
+        this.physicsPool = physicsPool;
+        this.batchStepper = batchStepper;
+        this.holdTicket = holdTicket;
+        this.tickCost = tickCost;
+    }
+
+    RegionKey key() {
+        return this.key;
+    }
+
+    void add(PendulumChain chain) {
+        this.chains.add(chain);
+    }
+
+    void remove(PendulumChain chain) {
+        this.chains.remove(chain);
+        this.updateTicket();
+    }
+
+    boolean isEmpty() {
+        return this.chains.isEmpty();
+    }
+
+    synchronized void start(Plugin plugin, double dtTick) {
+        this.plugin = plugin;
+        this.dtTick = dtTick;
+        // checked once here; afterwards chunk events drive suspend and resume
+        if (!this.world.isChunkLoaded(this.key.chunkX(), this.key.chunkZ())) {
+            this.suspended = true;
+            return;
+        }
+        this.schedule("start", 1L);
+        this.parked = false;
+    }
+
+    synchronized void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        RegionScheduleEvent.emit("stop", this.key.chunkX(), this.key.chunkZ(), 0L);
+        if (this.ticketHeld) {
+            this.world.removePluginChunkTicket(this.key.chunkX(), this.key.chunkZ(), this.plugin);
+            this.ticketHeld = false;
+        }
+        this.plugin = null;
+    }
+
+    // a chain woke up; if the group was parked on the slow timer, go back to every tick
+    synchronized void wake() {
+        this.updateTicket();
+        if (this.parked && !this.suspended && this.plugin != null) {
+            this.schedule("wake", 1L);
+            this.parked = false;
+        }
+    }
+
+    synchronized void suspend() {
+        if (this.suspended) {
+            return;
+        }
+        this.suspended = true;
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        RegionScheduleEvent.emit("suspend", this.key.chunkX(), this.key.chunkZ(), 0L);
+        // non-persistent pooled entities go away with the chunk
+        for (final PendulumChain chain : this.chains) {
+            chain.cleanupEntities();
+        }
+    }
+
+    synchronized void resume() {
+        if (!this.suspended || this.plugin == null) {
+            return;
+        }
+        this.suspended = false;
+        this.schedule("resume", 1L);
+        this.parked = false;
+    }
+
+    private synchronized void updateTicket() {
+        if (!this.holdTicket || this.plugin == null) {
+            return;
+        }
+        boolean wanted = false;
+        for (final PendulumChain chain : this.chains) {
+            wanted |= chain.active();
+        }
+        if (wanted == this.ticketHeld) {
+            return;
+        }
+        this.ticketHeld = wanted;
+        if (wanted) {
+            this.world.addPluginChunkTicket(this.key.chunkX(), this.key.chunkZ(), this.plugin);
+        } else {
+            this.world.removePluginChunkTicket(this.key.chunkX(), this.key.chunkZ(), this.plugin);
+        }
+    }
+
+    private synchronized void park() {
+        // a wake may have slipped in since the tick looked
+        for (final PendulumChain chain : this.chains) {
+            if (!chain.resting() || chain.tapeRunning()) {
+                return;
+            }
+        }
+        if (!this.parked && !this.suspended && this.plugin != null) {
+            this.schedule("park", RESTING_PERIOD);
+            this.parked = true;
+        }
+    }
+
+    private void schedule(String reason, long period) {
+        if (this.task != null) {
+            this.task.cancel();
+        }
+        RegionScheduleEvent.emit(reason, this.key.chunkX(), this.key.chunkZ(), period);
+        this.task = Bukkit.getRegionScheduler().runAtFixedRate(
+            this.plugin,
+            this.world,
+            this.key.chunkX(),
+            this.key.chunkZ(),
+            scheduledTask -> this.tick(),
+            period,
+            period
+        );
+    }
+
+    private void tick() {
+        final RegionTickEvent event = new RegionTickEvent();
+        event.begin();
+        final long started = System.nanoTime();
+        this.step(this.dtTick);
+        // resting chains only need their static pose redrawn now and then
+        final boolean refreshResting = this.parked || this.ticks++ % RESTING_PERIOD == 0;
+        int awake = 0;
+        for (final PendulumChain chain : this.chains) {
+            final boolean resting = chain.resting() && !chain.tapeRunning();
+            awake += resting ? 0 : 1;
+            if (!resting || refreshResting) {
+                chain.render(this.world);
+            }
+        }
+        this.tickCost.record(System.nanoTime() - started);
+        event.complete(this.key.chunkX(), this.key.chunkZ(), this.chains.size(), awake, this.parked);
+        if (awake == 0) {
+            this.park();
+        }
+    }
+
+    private void step(double dtTick) {
+        if (this.physicsPool != null) {
+            for (final PendulumChain chain : this.chains) {
+                chain.stepAsync(this.physicsPool, dtTick);
+            }
+            return;
+        }
+        if (this.batchStepper != null) {
+            this.batchStepper.step(this.chains, dtTick);
+            return;
+        }
+        for (final PendulumChain chain : this.chains) {
+            chain.stepTick(dtTick);
+        }
+    }
+}
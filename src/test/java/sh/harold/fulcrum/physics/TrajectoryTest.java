@@ -0,0 +1,122 @@
+package sh.harold.fulcrum.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import org.bukkit.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrajectoryTest {
+
+    private static final double TICK_SECONDS = 0.05;
+    private static final int TICKS = 200;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void ropeRoundTripKeepsShortLinksAndRopeMode() throws IOException {
+        final PendulumChain source = chain(1);
+        source.configureRope(64, 0.1, 0.2);
+        source.resetPose(PoseType.RIGHT, new SplittableRandom(7L));
+        source.active(true);
+
+        final Recorded recorded = this.record(source, "rope.pndr");
+        final TrajectoryReplay replay = new TrajectoryReplay(recorded.file);
+        assertTrue(replay.rope());
+        assertEquals(65, replay.nodeCount());
+
+        final PendulumChain target = chain(2);
+        target.replay(replay);
+        assertTrue(target.rope());
+        assertEquals(64, target.segmentCount());
+        for (int i = 0; i < 64; i++) {
+            assertEquals(0.1, target.segmentLength(i), 1e-12);
+            assertEquals(0.2, target.massAt(i + 1), 1e-12);
+        }
+        assertTrue(target.resting());
+        assertFrames(recorded, replay);
+    }
+
+    @Test
+    void rigidRoundTripRestoresLengthsAndMasses() throws IOException {
+        final PendulumChain source = chain(1);
+        source.configureSegments(3);
+        source.setSegmentLength(1, 2.5);
+        source.setMass(2, 4.0);
+        source.resetPose(PoseType.RIGHT, new SplittableRandom(7L));
+        source.active(true);
+
+        final Recorded recorded = this.record(source, "rigid.pndr");
+        final TrajectoryReplay replay = new TrajectoryReplay(recorded.file);
+        assertFalse(replay.rope());
+
+        final PendulumChain target = chain(2);
+        target.configureRope(32, 0.1, 0.2);
+        target.replay(replay);
+        assertFalse(target.rope());
+        assertEquals(3, target.segmentCount());
+        assertEquals(2.5, target.segmentLength(1), 1e-12);
+        assertEquals(4.0, target.massAt(2), 1e-12);
+        assertFrames(recorded, replay);
+
+        target.replay(null);
+        assertNull(target.replay());
+    }
+
+    private Recorded record(PendulumChain chain, String name) {
+        final Path file = this.folder.resolve(name);
+        final TrajectoryRecorder recorder = new TrajectoryRecorder(file, Runnable::run, chain);
+        final Recorded recorded = new Recorded(file, chain.state().nodeCount);
+        for (int t = 0; t < TICKS; t++) {
+            chain.stepTick(TICK_SECONDS);
+            final ChainSnapshot frame = chain.snapshot();
+            recorder.record(frame);
+            for (int i = 0; i < recorded.nodeCount; i++) {
+                recorded.x[t][i] = frame.x(i);
+                recorded.y[t][i] = frame.y(i);
+            }
+        }
+        recorder.close();
+        assertNull(recorder.failure());
+        assertEquals(TICKS, recorder.frames());
+        return recorded;
+    }
+
+    private static void assertFrames(Recorded recorded, TrajectoryReplay replay) {
+        assertEquals(TICKS, replay.frames());
+        for (int t = 0; t < TICKS; t++) {
+            replay.advance();
+            final ChainSnapshot frame = replay.frame();
+            for (int i = 0; i < recorded.nodeCount; i++) {
+                assertEquals(recorded.x[t][i], frame.x(i), Trajectory.QUANTUM);
+                assertEquals(recorded.y[t][i], frame.y(i), Trajectory.QUANTUM);
+            }
+        }
+    }
+
+    private static PendulumChain chain(int id) {
+        return new PendulumChain(id, new Location(null, 0.5, 100.5, 0.5), null);
+    }
+
+    private static final class Recorded {
+
+        final Path file;
+        final int nodeCount;
+        final double[][] x;
+        final double[][] y;
+
+        Recorded(Path file, int nodeCount) {
+            this.file = file;
+            this.nodeCount = nodeCount;
+            this.x = new double[TICKS][nodeCount];
+            this.y = new double[TICKS][nodeCount];
+        }
+    }
+}
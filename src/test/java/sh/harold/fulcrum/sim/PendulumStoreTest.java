@@ -0,0 +1,127 @@
+package sh.harold.fulcrum.sim;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sh.harold.fulcrum.physics.ChainCodec;
+import sh.harold.fulcrum.physics.IntegratorType;
+import sh.harold.fulcrum.physics.ParticleStyle;
+import sh.harold.fulcrum.physics.PendulumChain;
+import sh.harold.fulcrum.physics.PoseType;
+import sh.harold.fulcrum.physics.SolverMode;
+import sh.harold.fulcrum.physics.TipTrailStyle;
+
+class PendulumStoreTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void chainSurvivesEncodeWriteReadDecode() throws IOException {
+        final PendulumChain source = chain(1);
+        source.configureSegments(3);
+        source.setSegmentLength(1, 2.5);
+        source.setMass(2, 4.0);
+        source.setSegmentCompliance(0, 0.004);
+        source.solverMode(SolverMode.XPBD);
+        source.integratorType(IntegratorType.VERLET);
+        source.particleStyle(ParticleStyle.SPARK);
+        source.tipTrailStyle(TipTrailStyle.CHERRY);
+        source.substeps(24);
+        source.minSubsteps(4);
+        source.iterations(12);
+        source.adaptive(true);
+        source.priority(-2);
+        source.drag(0.03);
+        source.gravity(11.0);
+        source.scale(3.0);
+        source.nodeParticleSize(1.5f);
+        source.historySeconds(6.0);
+        source.setOverrideColors(Color.fromRGB(10, 20, 30), null);
+        source.traceTip(true);
+        source.showNodes(false);
+        source.rodDisplays(true);
+        source.resetPose(PoseType.RIGHT, new SplittableRandom(3L));
+        source.active(true);
+        for (int t = 0; t < 20; t++) {
+            source.stepTick(0.05);
+        }
+
+        final PendulumStore store = new PendulumStore(this.folder);
+        final UUID world = UUID.randomUUID();
+        final byte[] body = ChainCodec.encode(source);
+        store.write(() -> List.of(new PendulumStore.Entry(7, world, 1.5, 64.0, -3.25, ChainCodec.VERSION, body)));
+
+        final List<PendulumStore.Entry> read = store.read();
+        assertEquals(1, read.size());
+        final PendulumStore.Entry entry = read.get(0);
+        assertEquals(7, entry.id());
+        assertEquals(world, entry.world());
+        assertEquals(-3.25, entry.z(), 0.0);
+        assertEquals(new RegionKey(world, 1 >> 4, -4 >> 4), entry.key());
+        assertArrayEquals(body, entry.body());
+
+        final PendulumChain restored = chain(2);
+        ChainCodec.decode(entry.body(), entry.version(), restored);
+        assertTrue(restored.active());
+        assertFalse(restored.rope());
+        assertEquals(SolverMode.XPBD, restored.solverMode());
+        assertEquals(ParticleStyle.SPARK, restored.particleStyle());
+        assertEquals(TipTrailStyle.CHERRY, restored.tipTrailStyle());
+        assertEquals(24, restored.substeps());
+        assertEquals(4, restored.minSubsteps());
+        assertEquals(12, restored.iterations());
+        assertTrue(restored.adaptive());
+        assertEquals(-2, restored.priority());
+        assertEquals(0.03, restored.drag(), 0.0);
+        assertEquals(11.0, restored.gravity(), 0.0);
+        assertEquals(3.0, restored.scale(), 0.0);
+        assertEquals(1.5f, restored.nodeParticleSize(), 0.0f);
+        assertEquals(6.0, restored.historySeconds(), 0.0);
+        assertEquals(Color.fromRGB(10, 20, 30).asRGB(), restored.rodOverrideColor().asRGB());
+        assertNull(restored.nodeOverrideColor());
+        assertTrue(restored.traceTip());
+        assertFalse(restored.showNodes());
+        assertTrue(restored.rodDisplays());
+        assertArrayEquals(source.segmentLengths(), restored.segmentLengths(), 0.0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(source.segmentCompliance(i), restored.segmentCompliance(i), 0.0);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(source.node(i).pos(), restored.node(i).pos());
+            assertEquals(source.node(i).prevPos(), restored.node(i).prevPos());
+            assertEquals(source.massAt(i), restored.massAt(i), 0.0);
+        }
+    }
+
+    @Test
+    void missingFileReadsEmptyAndBadFileCanBeSetAside() throws IOException {
+        final PendulumStore store = new PendulumStore(this.folder);
+        assertTrue(store.read().isEmpty());
+
+        final Path file = this.folder.resolve("pendulums.dat");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, store::read);
+        store.quarantine();
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(store.quarantineFile()));
+    }
+
+    private static PendulumChain chain(int id) {
+        return new PendulumChain(id, new Location(null, 0.5, 100.5, 0.5), null);
+    }
+}